@@ -0,0 +1,78 @@
+package com.assistant.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Сравнивает два JSON-результата JMH (-rf json) и завершается с кодом 1, если какой-то бенчмарк
+ * стал хуже базового больше чем на порог (в процентах, по умолчанию 10) с учетом погрешности.
+ * java -cp benchmarks/target/benchmarks.jar com.assistant.benchmarks.CompareResults baseline.json current.json [порог]
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode was = baseline.get(entry.getKey());
+            JsonNode now = entry.getValue();
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            double nowScore = now.path("primaryMetric").path("score").asDouble();
+            if (was == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", nowScore, "new", unit);
+                continue;
+            }
+
+            double wasScore = was.path("primaryMetric").path("score").asDouble();
+            double error = was.path("primaryMetric").path("scoreError").asDouble(0)
+                    + now.path("primaryMetric").path("scoreError").asDouble(0);
+            // Для thrpt больше - лучше, для avgt/sample/ss - хуже
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            double worse = higherIsBetter ? wasScore - nowScore : nowScore - wasScore;
+            double changePercent = (nowScore - wasScore) / wasScore * 100.0;
+            boolean regression = worse > error && Math.abs(changePercent) > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), wasScore, nowScore,
+                    changePercent, unit, regression ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            for (Map.Entry<String, JsonNode> param : params.properties()) {
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            key.append(" [").append(result.path("mode").asText()).append(", ")
+                    .append(result.path("threads").asInt()).append("t]");
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
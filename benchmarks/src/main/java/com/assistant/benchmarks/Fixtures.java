@@ -0,0 +1,39 @@
+package com.assistant.benchmarks;
+
+import com.assistant.centralservicespring.model.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Детерминированные тестовые персоны для бенчмарков
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    public static Person person(int i) {
+        Person person = new Person();
+        person.setId(i + 1);
+        person.setName("Person " + i);
+        person.setCoordinates(new Coordinates(55.75 + i % 10, 37.61f + i % 7));
+        person.setHeight(150 + i % 50);
+        person.setBirthday(LocalDate.of(1970, 1, 1).plusDays(i % 15_000));
+        person.setWeight(i % 4 == 0 ? null : 50L + i % 60);
+        person.setNationality(Country.values()[i % Country.values().length]);
+        person.setLocation(new Location(55.75f, i % 90, "City " + i % 100));
+        person.setHairColor(HairColor.values()[i % HairColor.values().length]);
+        person.setEyeColor(EyeColor.values()[i % EyeColor.values().length]);
+        return person;
+    }
+
+    public static List<Person> persons(int count) {
+        List<Person> persons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            persons.add(person(i));
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,177 @@
+package com.assistant.benchmarks;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Нагрузочный тест SOAP-эндпоинта: N клиентов в замкнутом цикле (следующий запрос после ответа на предыдущий).
+ * Печатает пропускную способность и перцентили задержки без учета прогрева; служит для сравнения
+ * платформенных и виртуальных потоков (профиль virtual-threads) на одной машине.
+ * java -cp benchmarks/target/benchmarks.jar com.assistant.benchmarks.SoapLoadTest \
+ *     https://localhost:28444/central-service/ws [клиентов=2000] [секунд=30] [прогрев=10] [byId|page] [maxId=30]
+ */
+public final class SoapLoadTest {
+
+    private static final String ENVELOPE = "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" "
+            + "xmlns:p=\"http://centralservicespring.assistant.com/persons\"><soapenv:Body>%s</soapenv:Body></soapenv:Envelope>";
+
+    private SoapLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: SoapLoadTest <ws-url> [clients] [duration-sec] [warmup-sec] [byId|page] [max-id]");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0]);
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        long durationNanos = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30).toNanos();
+        long warmupNanos = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 10).toNanos();
+        String operation = args.length > 4 ? args[4] : "byId";
+        int maxId = args.length > 5 ? Integer.parseInt(args[5]) : 30;
+
+        // Сертификат центрального сервиса самоподписанный и выдан не на localhost
+        System.setProperty("jdk.internal.httpclient.disableHostnameVerification", "true");
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .sslContext(trustAll())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long stopAt = measureFrom + durationNanos;
+
+        Client[] running = new Client[clients];
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            running[i] = new Client(httpClient, uri, operation, maxId, measureFrom, stopAt, done);
+            running[i].next();
+        }
+        done.await();
+
+        long[] latencies = Arrays.stream(running).flatMapToLong(Client::latencies).sorted().toArray();
+        long errors = Arrays.stream(running).mapToLong(client -> client.errors.get()).sum();
+        double seconds = durationNanos / 1e9;
+
+        System.out.printf("clients=%d operation=%s duration=%.0fs%n", clients, operation, seconds);
+        System.out.printf("requests=%d errors=%d throughput=%.1f req/s%n", latencies.length, errors,
+                latencies.length / seconds);
+        System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                percentile(latencies, 99.9), latencies.length > 0 ? latencies[latencies.length - 1] / 1e6 : 0);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static SSLContext trustAll() throws Exception {
+        TrustManager trustAll = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, new TrustManager[]{trustAll}, null);
+        return sslContext;
+    }
+
+    /**
+     * Один клиент: запросы идут строго последовательно, поэтому свои задержки он пишет без синхронизации
+     */
+    private static final class Client {
+        private final HttpClient httpClient;
+        private final URI uri;
+        private final String operation;
+        private final int maxId;
+        private final long measureFrom;
+        private final long stopAt;
+        private final CountDownLatch done;
+        private final AtomicLong errors = new AtomicLong();
+        private long[] latencies = new long[256];
+        private int count;
+
+        private Client(HttpClient httpClient, URI uri, String operation, int maxId,
+                       long measureFrom, long stopAt, CountDownLatch done) {
+            this.httpClient = httpClient;
+            this.uri = uri;
+            this.operation = operation;
+            this.maxId = maxId;
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+            this.done = done;
+        }
+
+        private void next() {
+            long sent = System.nanoTime();
+            if (sent >= stopAt) {
+                done.countDown();
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "text/xml; charset=utf-8")
+                    .POST(HttpRequest.BodyPublishers.ofString(String.format(ENVELOPE, payload())))
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long received = System.nanoTime();
+                        boolean ok = failure == null && response.statusCode() == 200;
+                        if (sent >= measureFrom && received <= stopAt) {
+                            if (ok) {
+                                record(received - sent);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                        next();
+                    });
+        }
+
+        private String payload() {
+            if ("page".equals(operation)) {
+                return "<p:GetPersonsRequest><p:page>0</p:page><p:size>10</p:size>"
+                        + "<p:sort>name,asc</p:sort><p:totalCountMode>none</p:totalCountMode></p:GetPersonsRequest>";
+            }
+            int id = ThreadLocalRandom.current().nextInt(1, maxId + 1);
+            return "<p:GetPersonByIdRequest><p:id>" + id + "</p:id></p:GetPersonByIdRequest>";
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+
+        private LongStream latencies() {
+            return Arrays.stream(latencies, 0, count);
+        }
+    }
+}
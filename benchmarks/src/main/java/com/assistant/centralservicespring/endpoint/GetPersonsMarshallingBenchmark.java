@@ -0,0 +1,88 @@
+package com.assistant.centralservicespring.endpoint;
+
+import com.assistant.benchmarks.Fixtures;
+import com.assistant.centralservicespring.soap.generated.GetPersonsResponse;
+import com.assistant.centralservicespring.soap.generated.TotalCountMode;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JAXB-маршаллинг GetPersonsResponse на 10, 100 и 1000 персон, как его выполняет Spring-WS.
+ * Второй бенчмарк включает конвертацию из модели, то есть весь путь ответа getPersons после запроса к базе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetPersonsMarshallingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int persons;
+
+    private JAXBContext context;
+    private PersonEndpoint endpoint;
+    private List<com.assistant.centralservicespring.model.Person> models;
+    private GetPersonsResponse response;
+
+    @Setup
+    public void setUp() throws JAXBException {
+        context = JAXBContext.newInstance(GetPersonsResponse.class);
+        endpoint = new PersonEndpoint(null, null, null);
+        models = Fixtures.persons(persons);
+        response = toResponse();
+    }
+
+    @Benchmark
+    public void marshal(Blackhole blackhole) throws JAXBException {
+        marshal(response, blackhole);
+    }
+
+    @Benchmark
+    public void convertAndMarshal(Blackhole blackhole) throws JAXBException {
+        marshal(toResponse(), blackhole);
+    }
+
+    private GetPersonsResponse toResponse() {
+        GetPersonsResponse result = new GetPersonsResponse();
+        for (com.assistant.centralservicespring.model.Person model : models) {
+            result.getPersons().add(endpoint.convertToSoapPerson(model));
+        }
+        result.setTotalCount(models.size());
+        result.setHasNext(false);
+        result.setTotalCountMode(TotalCountMode.EXACT);
+        return result;
+    }
+
+    private void marshal(GetPersonsResponse value, Blackhole blackhole) throws JAXBException {
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.marshal(value, new BlackholeOutputStream(blackhole));
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        private BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.assistant.centralservicespring.endpoint;
+
+import com.assistant.benchmarks.Fixtures;
+import com.assistant.centralservicespring.model.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование одной персоны между моделью и SOAP-типом в PersonEndpoint
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonConversionBenchmark {
+
+    private PersonEndpoint endpoint;
+    private Person person;
+    private com.assistant.centralservicespring.soap.generated.Person soapPerson;
+
+    @Setup
+    public void setUp() {
+        endpoint = new PersonEndpoint(null, null, null);
+        person = Fixtures.person(7);
+        soapPerson = endpoint.convertToSoapPerson(person);
+    }
+
+    @Benchmark
+    public com.assistant.centralservicespring.soap.generated.Person convertToSoapPerson() {
+        return endpoint.convertToSoapPerson(person);
+    }
+
+    @Benchmark
+    public Person convertFromSoapPerson() {
+        return endpoint.convertFromSoapPerson(soapPerson);
+    }
+}
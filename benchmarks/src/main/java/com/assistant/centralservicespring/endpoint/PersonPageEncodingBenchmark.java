@@ -0,0 +1,120 @@
+package com.assistant.centralservicespring.endpoint;
+
+import com.assistant.benchmarks.Fixtures;
+import com.assistant.centralservicespring.dto.PersonPage;
+import com.assistant.centralservicespring.soap.generated.GetPersonsResponse;
+import com.assistant.centralservicespring.soap.generated.TotalCountMode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ответ на страницу из 1000 персон после запроса к базе: SOAP (конвертация в JAXB-классы,
+ * маршаллинг в SAAJ-конверт, как у Spring-WS) против REST JSON и CBOR через те же ObjectMapper,
+ * что у конвертеров Spring MVC. Время - CPU сервера на ответ, размер на проводе печатается в Setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonPageEncodingBenchmark {
+
+    public enum Encoding { SOAP, JSON, CBOR }
+
+    @Param({"SOAP", "JSON", "CBOR"})
+    public Encoding encoding;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"1000"})
+    public int persons;
+
+    private PersonEndpoint endpoint;
+    private List<com.assistant.centralservicespring.model.Person> models;
+    private PersonPage page;
+    private SaajSoapMessageFactory messageFactory;
+    private Jaxb2Marshaller marshaller;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+
+    @Setup
+    public void setUp() throws Exception {
+        endpoint = new PersonEndpoint(null, null, null);
+        models = Fixtures.persons(persons);
+        page = new PersonPage(models, false, null, (long) persons, PersonPage.CountMode.EXACT);
+
+        messageFactory = new SaajSoapMessageFactory();
+        messageFactory.afterPropertiesSet();
+        marshaller = new Jaxb2Marshaller();
+        marshaller.setClassesToBeBound(GetPersonsResponse.class);
+        marshaller.afterPropertiesSet();
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+        CountingOutputStream counter = new CountingOutputStream();
+        write(counter);
+        System.out.printf("%n%s gzip=%s persons=%d: %d bytes%n", encoding, gzip, persons, counter.bytes);
+    }
+
+    @Benchmark
+    public long respond() throws Exception {
+        CountingOutputStream counter = new CountingOutputStream();
+        write(counter);
+        return counter.bytes;
+    }
+
+    private void write(CountingOutputStream counter) throws Exception {
+        OutputStream output = gzip ? new GZIPOutputStream(counter, 8192) : counter;
+        switch (encoding) {
+            case SOAP:
+                SaajSoapMessage message = messageFactory.createWebServiceMessage();
+                marshaller.marshal(toSoapResponse(), message.getPayloadResult());
+                message.writeTo(output);
+                break;
+            case JSON:
+                jsonMapper.writeValue(output, page);
+                break;
+            case CBOR:
+                cborMapper.writeValue(output, page);
+                break;
+        }
+        output.close();
+    }
+
+    private GetPersonsResponse toSoapResponse() {
+        GetPersonsResponse response = new GetPersonsResponse();
+        for (com.assistant.centralservicespring.model.Person model : models) {
+            response.getPersons().add(endpoint.convertToSoapPerson(model));
+        }
+        response.setTotalCount(models.size());
+        response.setHasNext(false);
+        response.setTotalCountMode(TotalCountMode.EXACT);
+        return response;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            bytes += len;
+        }
+    }
+}
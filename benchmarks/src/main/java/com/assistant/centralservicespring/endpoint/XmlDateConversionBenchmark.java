@@ -0,0 +1,49 @@
+package com.assistant.centralservicespring.endpoint;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование дат в XMLGregorianCalendar: прежний способ (новая фабрика на каждый вызов,
+ * разбор строки) против XmlDateConverter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmlDateConversionBenchmark {
+
+    private final LocalDate localDate = LocalDate.of(1990, 5, 15);
+    private final Date date = new Date(1_700_000_000_123L);
+
+    @Benchmark
+    public XMLGregorianCalendar localDateLegacy() throws DatatypeConfigurationException {
+        return DatatypeFactory.newInstance().newXMLGregorianCalendar(localDate.toString());
+    }
+
+    @Benchmark
+    public XMLGregorianCalendar localDateConverter() {
+        return XmlDateConverter.toXml(localDate);
+    }
+
+    @Benchmark
+    public XMLGregorianCalendar dateLegacy() throws DatatypeConfigurationException {
+        GregorianCalendar calendar = new GregorianCalendar();
+        calendar.setTime(date);
+        return DatatypeFactory.newInstance().newXMLGregorianCalendar(calendar);
+    }
+
+    @Benchmark
+    public XMLGregorianCalendar dateConverter() {
+        return XmlDateConverter.toXml(date);
+    }
+}
@@ -0,0 +1,99 @@
+package com.assistant.centralservicespring.repository;
+
+import com.assistant.centralservicespring.model.Person;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы репозитория до PostgreSQL целиком: Criteria (templates=false) против JPQL-шаблонов (templates=true).
+ * Нужна база со схемой persons; по умолчанию локальная, как в application.properties:
+ * java -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/postgres -jar benchmarks.jar PersonQueryLatency
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonQueryLatencyBenchmark {
+
+    @Param({"false", "true"})
+    public boolean templates;
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private PersonRepositoryCustomImpl repository;
+    private Map<String, Object> filters;
+    private List<String> sortParams;
+    private String cursor;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", PostgreSQLDialect.class.getName())
+                .applySetting("hibernate.connection.url", System.getProperty("benchmark.db.url",
+                        "jdbc:postgresql://localhost:5432/postgres"))
+                .applySetting("hibernate.connection.username", System.getProperty("benchmark.db.user", "username"))
+                .applySetting("hibernate.connection.password", System.getProperty("benchmark.db.password", "password"))
+                .applySetting("hibernate.connection.pool_size", 1)
+                .applySetting("hibernate.hbm2ddl.auto", "none")
+                .applySetting("jakarta.persistence.validation.mode", "none")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Person.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        entityManager = sessionFactory.createEntityManager();
+
+        repository = new PersonRepositoryCustomImpl(new SimpleMeterRegistry(), templates, 1000);
+        Field field = PersonRepositoryCustomImpl.class.getDeclaredField("entityManager");
+        field.setAccessible(true);
+        field.set(repository, entityManager);
+
+        filters = new HashMap<>();
+        filters.put("height[gt]", 150.0);
+        filters.put("weight[lt]", 120L);
+        sortParams = List.of("nationality,asc", "height,desc");
+
+        List<Person> firstPage = repository.findWithFiltersAndSortAfter(filters, sortParams, null, 5);
+        cursor = repository.buildCursor(sortParams, firstPage.get(firstPage.size() - 1));
+        entityManager.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<Person> page() {
+        List<Person> persons = repository.findWithFiltersAndSort(filters, sortParams, 1, 10);
+        entityManager.clear();
+        return persons;
+    }
+
+    @Benchmark
+    public List<Person> keyset() {
+        List<Person> persons = repository.findWithFiltersAndSortAfter(filters, sortParams, cursor, 10);
+        entityManager.clear();
+        return persons;
+    }
+
+    @Benchmark
+    public long count() {
+        return repository.countWithFilters(filters);
+    }
+}
@@ -0,0 +1,140 @@
+package com.assistant.centralservicespring.repository;
+
+import com.assistant.centralservicespring.model.Person;
+import com.assistant.personquery.PersonFilter;
+import com.assistant.personquery.SortKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.Query;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение Criteria-запроса списка персон: buildPredicates (вместе с разбором фильтра), buildOrders и запрос целиком,
+ * а также готовый к выполнению запрос из Criteria против JPQL-шаблона (PersonQueryTemplates).
+ * SessionFactory собирается без подключения к базе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryConstructionBenchmark {
+
+    @Param({"none", "single", "all"})
+    public String filterSet;
+
+    private SessionFactory sessionFactory;
+    private Session session;
+    private CriteriaBuilder cb;
+    private PersonRepositoryCustomImpl repository;
+    private PersonQueryTemplates templates;
+    private Map<String, Object> filters;
+    private List<String> sortParams;
+
+    @Setup
+    public void setUp() {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", PostgreSQLDialect.class.getName())
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", false)
+                .applySetting("hibernate.hbm2ddl.auto", "none")
+                .applySetting("jakarta.persistence.validation.mode", "none")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Person.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        session = sessionFactory.openSession();
+        cb = sessionFactory.getCriteriaBuilder();
+        repository = new PersonRepositoryCustomImpl(new SimpleMeterRegistry(), false, 0);
+        templates = new PersonQueryTemplates(1000);
+
+        filters = new HashMap<>();
+        sortParams = Collections.emptyList();
+        if ("single".equals(filterSet)) {
+            filters.put("nationality", "ITALY");
+            sortParams = List.of("name,asc");
+        } else if ("all".equals(filterSet)) {
+            filters.put("id[gt]", 10);
+            filters.put("id[lt]", 100_000);
+            filters.put("name", "Person 42");
+            filters.put("height[gt]", 150.0);
+            filters.put("height[lt]", 200.0);
+            filters.put("weight[gt]", 40L);
+            filters.put("weight[lt]", 120L);
+            filters.put("nationality", "ITALY");
+            filters.put("birthday[gt]", LocalDate.of(1970, 1, 1));
+            filters.put("birthday[lt]", LocalDate.of(2000, 1, 1));
+            sortParams = List.of("nationality,asc", "height,desc", "location.name,asc", "id,asc");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        session.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<Predicate> buildPredicates() {
+        CriteriaQuery<Person> query = cb.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+        return repository.buildPredicates(cb, root, PersonFilter.compile(filters));
+    }
+
+    @Benchmark
+    public List<Order> buildOrders() {
+        CriteriaQuery<Person> query = cb.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+        return repository.buildOrders(cb, root, sortParams);
+    }
+
+    @Benchmark
+    public CriteriaQuery<Person> buildQuery() {
+        CriteriaQuery<Person> query = cb.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+
+        List<Predicate> predicates = repository.buildPredicates(cb, root, PersonFilter.compile(filters));
+        if (!predicates.isEmpty()) {
+            query.where(cb.and(predicates.toArray(new Predicate[0])));
+        }
+        query.orderBy(repository.buildOrders(cb, root, sortParams));
+        return query;
+    }
+
+    /**
+     * Запрос, готовый к выполнению, как его получал репозиторий: Criteria копируется и разбирается заново
+     */
+    @Benchmark
+    public Query<Person> criteriaQuery() {
+        return session.createQuery(buildQuery());
+    }
+
+    /**
+     * То же из шаблона: разбор фильтра, поиск по сигнатуре, разбор JPQL из кэша планов Hibernate, привязка параметров
+     */
+    @Benchmark
+    public Query<Person> templateQuery() {
+        PersonFilter filter = PersonFilter.compile(filters);
+        PersonQueryTemplates.Template template = templates.get(
+                PersonQueryTemplates.Kind.PAGE, filter, SortKey.parse(sortParams), null);
+        return template.bind(session.createQuery(template.getJpql(), Person.class), filter, null);
+    }
+}
@@ -0,0 +1,163 @@
+package com.assistant.centralservicespring.repository;
+
+import com.assistant.centralservicespring.model.Person;
+import com.assistant.centralservicespring.model.SpatialField;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск по прямоугольнику и рядом с точкой: GiST по point(x, y) (миграция V4) против B-tree по
+ * отдельным координатам (box) и полного прохода с сортировкой по расстоянию (nearest).
+ * Нужна отдельная база со схемой persons: если строк меньше benchmark.rows (по умолчанию 1 000 000),
+ * Setup дозаполняет таблицу точками, равномерно разбросанными по [0, 10000) x [0, 10000), и создает индексы V4:
+ * java -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/spatial -jar benchmarks.jar SpatialQuery
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpatialQueryBenchmark {
+
+    private static final double SIDE = 10000;
+
+    /** Сторона прямоугольника и радиус: ~100 и ~80 точек из миллиона */
+    private static final double BOX = 100;
+    private static final double RADIUS = 50;
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private PersonRepositoryCustomImpl repository;
+    private long step;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", PostgreSQLDialect.class.getName())
+                .applySetting("hibernate.connection.url", System.getProperty("benchmark.db.url",
+                        "jdbc:postgresql://localhost:5432/spatial"))
+                .applySetting("hibernate.connection.username", System.getProperty("benchmark.db.user", "username"))
+                .applySetting("hibernate.connection.password", System.getProperty("benchmark.db.password", "password"))
+                .applySetting("hibernate.connection.pool_size", 1)
+                .applySetting("hibernate.hbm2ddl.auto", "none")
+                .applySetting("jakarta.persistence.validation.mode", "none")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Person.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        entityManager = sessionFactory.createEntityManager();
+        seed(Long.getLong("benchmark.rows", 1_000_000));
+
+        repository = new PersonRepositoryCustomImpl(new SimpleMeterRegistry(), true, 1000);
+        Field field = PersonRepositoryCustomImpl.class.getDeclaredField("entityManager");
+        field.setAccessible(true);
+        field.set(repository, entityManager);
+    }
+
+    private void seed(long rows) {
+        long existing = ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM persons")
+                .getSingleResult()).longValue();
+        entityManager.getTransaction().begin();
+        if (existing < rows) {
+            entityManager.createNativeQuery("SELECT setseed(0.25)").getSingleResult();
+            entityManager.createNativeQuery(
+                            "INSERT INTO persons (id, name, coord_x, coord_y, height, weight, birthday, "
+                                    + "nationality, eye_color, hair_color, location_x, location_y, location_name) "
+                                    + "SELECT m.id + g, 'Spatial ' || g, random() * :side, random() * :side, "
+                                    + "150 + random() * 50, 50 + (random() * 50)::bigint, DATE '1970-01-01' + (g % 15000)::int, "
+                                    + "'RUSSIA', 'BLUE', 'BROWN', random() * :side, (random() * :side)::int, 'Spatial' "
+                                    + "FROM (SELECT COALESCE(MAX(id), 0) AS id FROM persons) m, "
+                                    + "generate_series(1, :rows) g")
+                    .setParameter("side", SIDE)
+                    .setParameter("rows", rows - existing)
+                    .executeUpdate();
+        }
+        // Те же индексы, что в V4: flyway в бенчмарках не подключен
+        entityManager.createNativeQuery("CREATE INDEX IF NOT EXISTS idx_persons_coordinates_point "
+                + "ON persons USING gist (point(coord_x, coord_y))").executeUpdate();
+        entityManager.createNativeQuery("CREATE INDEX IF NOT EXISTS idx_persons_location_point "
+                + "ON persons USING gist (point(location_x, location_y))").executeUpdate();
+        entityManager.createNativeQuery("ANALYZE persons").executeUpdate();
+        entityManager.getTransaction().commit();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    /** Каждый вызов - другая область, чтобы не мерить одни и те же страницы кэша */
+    private double nextX() {
+        step = (step + 7919) % 9000;
+        return 500 + step;
+    }
+
+    @Benchmark
+    public long countInBox() {
+        double x = nextX();
+        return repository.countInBox(SpatialField.COORDINATES, x, x, x + BOX, x + BOX);
+    }
+
+    @Benchmark
+    public long countInBoxBtree() {
+        double x = nextX();
+        return ((Number) entityManager.createNativeQuery(
+                        "SELECT COUNT(*) FROM persons WHERE coord_x BETWEEN :minX AND :maxX "
+                                + "AND coord_y BETWEEN :minY AND :maxY")
+                .setParameter("minX", x)
+                .setParameter("minY", x)
+                .setParameter("maxX", x + BOX)
+                .setParameter("maxY", x + BOX)
+                .getSingleResult()).longValue();
+    }
+
+    @Benchmark
+    public List<Person> pageInBox() {
+        double x = nextX();
+        List<Person> persons = repository.findInBox(SpatialField.COORDINATES, x, x, x + BOX, x + BOX, 20, 21);
+        entityManager.clear();
+        return persons;
+    }
+
+    @Benchmark
+    public List<Person> nearest() {
+        double x = nextX();
+        List<Person> persons = repository.findNearest(SpatialField.COORDINATES, x, x, null, 10);
+        entityManager.clear();
+        return persons;
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<Person> nearestFullScan() {
+        double x = nextX();
+        List<Person> persons = entityManager.createNativeQuery(
+                        "SELECT * FROM persons ORDER BY (coord_x - :x) * (coord_x - :x) "
+                                + "+ (coord_y - :y) * (coord_y - :y), id", Person.class)
+                .setParameter("x", x)
+                .setParameter("y", x)
+                .setMaxResults(10)
+                .getResultList();
+        entityManager.clear();
+        return persons;
+    }
+
+    @Benchmark
+    public long countWithinRadius() {
+        double x = nextX();
+        return repository.countWithinRadius(SpatialField.COORDINATES, x, x, RADIUS);
+    }
+}
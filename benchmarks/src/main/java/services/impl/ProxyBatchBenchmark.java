@@ -0,0 +1,170 @@
+package services.impl;
+
+import client.CentralServiceBalancer;
+import client.CentralServiceClient;
+import client.CentralServiceGuard;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Пакетные методы DemographyProxyServiceImpl против тех же данных, собранных последовательными
+ * одиночными вызовами, как это делал фронтенд. Заглушка центрального сервиса отвечает с задержкой
+ * LATENCY_MS, имитируя сеть и запрос к базе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProxyBatchBenchmark {
+
+    private static final long LATENCY_MS = 5;
+
+    private static final Set<String> HAIR_COLORS = new LinkedHashSet<>(Arrays.asList(
+            "BLONDE", "BRUNETTE", "BROWN", "RED", "BLACK", "GRAY", "WHITE"));
+    private static final Set<String> COUNTRIES = new LinkedHashSet<>(Arrays.asList(
+            "RUSSIA", "CHINA", "INDIA", "ITALY", "SOUTH_KOREA"));
+    private static final Set<String> EYE_COLORS = new LinkedHashSet<>(Arrays.asList(
+            "BROWN", "BLUE", "GREEN", "GRAY", "BLACK", "AMBER", "HAZEL"));
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CentralServiceClient client;
+    private CentralServiceGuard guard;
+    private CentralServiceBalancer balancer;
+    private DemographyProxyServiceImpl service;
+
+    @Setup
+    public void setUp() throws Exception {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        serverExecutor = Executors.newFixedThreadPool(64);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/central-service/api/demography/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String json;
+            if (path.endsWith("/distribution")) {
+                json = "{\"BROWN\":20.0,\"BLUE\":12.5,\"GREEN\":10.0,\"GRAY\":7.5,\"BLACK\":25.0,\"AMBER\":15.0,\"HAZEL\":10.0}";
+            } else {
+                json = path.endsWith("/percentage") ? "12.5" : "42";
+            }
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        Path configDir = Files.createTempDirectory("proxy-benchmark");
+        KeyStore trustStore = KeyStore.getInstance("PKCS12");
+        trustStore.load(null, null);
+        try (OutputStream output = Files.newOutputStream(configDir.resolve("proxy-truststore.p12"))) {
+            trustStore.store(output, "changeit".toCharArray());
+        }
+        System.setProperty("jboss.server.config.dir", configDir.toString());
+        System.setProperty("central.service.url",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/central-service/api");
+
+        Logger.getLogger(DemographyProxyServiceImpl.class.getName()).setLevel(Level.WARNING);
+
+        client = new CentralServiceClient();
+        Method init = CentralServiceClient.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(client);
+
+        service = new DemographyProxyServiceImpl();
+        Field clientField = DemographyProxyServiceImpl.class.getDeclaredField("centralServiceClient");
+        clientField.setAccessible(true);
+        clientField.set(service, client);
+
+        guard = new CentralServiceGuard();
+        Method guardInit = CentralServiceGuard.class.getDeclaredMethod("init");
+        guardInit.setAccessible(true);
+        guardInit.invoke(guard);
+        Field guardField = DemographyProxyServiceImpl.class.getDeclaredField("centralServiceGuard");
+        guardField.setAccessible(true);
+        guardField.set(service, guard);
+
+        balancer = new CentralServiceBalancer();
+        Field balancerClientField = CentralServiceBalancer.class.getDeclaredField("centralServiceClient");
+        balancerClientField.setAccessible(true);
+        balancerClientField.set(balancer, client);
+        Method balancerInit = CentralServiceBalancer.class.getDeclaredMethod("init");
+        balancerInit.setAccessible(true);
+        balancerInit.invoke(balancer);
+        Field balancerField = DemographyProxyServiceImpl.class.getDeclaredField("centralServiceBalancer");
+        balancerField.setAccessible(true);
+        balancerField.set(service, balancer);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Method destroy = CentralServiceClient.class.getDeclaredMethod("destroy");
+        destroy.setAccessible(true);
+        destroy.invoke(client);
+        Method guardDestroy = CentralServiceGuard.class.getDeclaredMethod("destroy");
+        guardDestroy.setAccessible(true);
+        guardDestroy.invoke(guard);
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public Map<String, Long> hairColorCountsSequential() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (String hairColor : HAIR_COLORS) {
+            result.put(hairColor, service.getCountByHairColor(hairColor));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Map<String, Long> hairColorCountsBatch() {
+        return service.getCountsByHairColors(HAIR_COLORS);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Double>> percentageMatrixSequential() {
+        Map<String, Map<String, Double>> result = new LinkedHashMap<>();
+        for (String country : COUNTRIES) {
+            Map<String, Double> row = new LinkedHashMap<>();
+            for (String eyeColor : EYE_COLORS) {
+                row.put(eyeColor, service.getPercentageByNationalityAndEyeColor(country, eyeColor));
+            }
+            result.put(country, row);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Double>> percentageMatrixBatch() {
+        return service.getPercentageMatrix(COUNTRIES, EYE_COLORS);
+    }
+}
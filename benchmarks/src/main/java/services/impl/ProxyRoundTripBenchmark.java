@@ -0,0 +1,132 @@
+package services.impl;
+
+import client.CentralServiceBalancer;
+import client.CentralServiceClient;
+import client.CentralServiceGuard;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Полный путь запроса через DemographyProxyServiceImpl и общий клиент CentralServiceClient
+ * до локальной заглушки центрального сервиса на JDK HttpServer (HTTP, keep-alive).
+ * EJB-контейнера нет: клиент и сервис создаются вручную, @EJB-поле заполняется рефлексией.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProxyRoundTripBenchmark {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CentralServiceClient client;
+    private CentralServiceGuard guard;
+    private CentralServiceBalancer balancer;
+    private DemographyProxyServiceImpl service;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Без TCP_NODELAY заглушка отвечает с задержкой delayed ACK (~40 мс) и измерялась бы она, а не прокси
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/central-service/api/demography/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = (path.endsWith("/percentage") ? "12.5" : "42").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        // Читаются статическими полями при загрузке классов клиента и сервиса
+        Path configDir = Files.createTempDirectory("proxy-benchmark");
+        KeyStore trustStore = KeyStore.getInstance("PKCS12");
+        trustStore.load(null, null);
+        try (OutputStream output = Files.newOutputStream(configDir.resolve("proxy-truststore.p12"))) {
+            trustStore.store(output, "changeit".toCharArray());
+        }
+        System.setProperty("jboss.server.config.dir", configDir.toString());
+        System.setProperty("central.service.url",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/central-service/api");
+
+        // Логи каждого запроса на консоль измеряли бы вывод, а не прокси
+        Logger.getLogger(DemographyProxyServiceImpl.class.getName()).setLevel(Level.WARNING);
+
+        client = new CentralServiceClient();
+        Method init = CentralServiceClient.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(client);
+
+        service = new DemographyProxyServiceImpl();
+        Field clientField = DemographyProxyServiceImpl.class.getDeclaredField("centralServiceClient");
+        clientField.setAccessible(true);
+        clientField.set(service, client);
+
+        guard = new CentralServiceGuard();
+        Method guardInit = CentralServiceGuard.class.getDeclaredMethod("init");
+        guardInit.setAccessible(true);
+        guardInit.invoke(guard);
+        Field guardField = DemographyProxyServiceImpl.class.getDeclaredField("centralServiceGuard");
+        guardField.setAccessible(true);
+        guardField.set(service, guard);
+
+        balancer = new CentralServiceBalancer();
+        Field balancerClientField = CentralServiceBalancer.class.getDeclaredField("centralServiceClient");
+        balancerClientField.setAccessible(true);
+        balancerClientField.set(balancer, client);
+        Method balancerInit = CentralServiceBalancer.class.getDeclaredMethod("init");
+        balancerInit.setAccessible(true);
+        balancerInit.invoke(balancer);
+        Field balancerField = DemographyProxyServiceImpl.class.getDeclaredField("centralServiceBalancer");
+        balancerField.setAccessible(true);
+        balancerField.set(service, balancer);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Method destroy = CentralServiceClient.class.getDeclaredMethod("destroy");
+        destroy.setAccessible(true);
+        destroy.invoke(client);
+        Method guardDestroy = CentralServiceGuard.class.getDeclaredMethod("destroy");
+        guardDestroy.setAccessible(true);
+        guardDestroy.invoke(guard);
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public Long countByHairColor() {
+        return service.getCountByHairColor("BLACK");
+    }
+
+    @Benchmark
+    public Double percentageByNationalityAndEyeColor() {
+        return service.getPercentageByNationalityAndEyeColor("ITALY", "BLUE");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Long countByHairColorConcurrent() {
+        return service.getCountByHairColor("BLACK");
+    }
+}
@@ -0,0 +1,82 @@
+package com.assistant.centralservicespring.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Ограничения параллелизма для режима виртуальных потоков (профиль virtual-threads):
+ * persons.requests.max-concurrency - запросы в обработке на основном порту (ConcurrencyLimitFilter),
+ * persons.datasource.max-concurrency - одновременно выданные соединения (SemaphoreDataSource).
+ * Оба публикуют метрики свободных разрешений и ожидающих.
+ */
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "persons.requests.max-concurrency")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(Environment environment) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+                environment.getRequiredProperty("persons.requests.max-concurrency", Integer.class),
+                environment.getProperty("persons.requests.acquire-timeout-ms", Long.class, 30_000L));
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "persons.requests.max-concurrency")
+    public MeterBinder concurrencyLimitFilterMetrics(FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter) {
+        ConcurrencyLimitFilter filter = concurrencyLimitFilter.getFilter();
+        return registry -> {
+            Gauge.builder("persons.requests.permits.available", filter, ConcurrencyLimitFilter::getAvailablePermits)
+                    .register(registry);
+            Gauge.builder("persons.requests.permits.waiting", filter, ConcurrencyLimitFilter::getWaiting)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "persons.datasource.max-concurrency")
+    public static BeanPostProcessor semaphoreDataSourcePostProcessor(Environment environment) {
+        int maxConcurrency = environment.getRequiredProperty("persons.datasource.max-concurrency", Integer.class);
+        long acquireTimeoutMs = environment.getProperty("persons.datasource.acquire-timeout-ms", Long.class, 30_000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource
+                        && !(bean instanceof SemaphoreDataSource)) {
+                    return new SemaphoreDataSource((DataSource) bean, maxConcurrency, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "persons.datasource.max-concurrency")
+    public MeterBinder semaphoreDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            SemaphoreDataSource semaphoreDataSource;
+            try {
+                semaphoreDataSource = dataSource.unwrap(SemaphoreDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("persons.datasource.permits.available", semaphoreDataSource,
+                            SemaphoreDataSource::getAvailablePermits)
+                    .register(registry);
+            Gauge.builder("persons.datasource.permits.waiting", semaphoreDataSource, SemaphoreDataSource::getWaiting)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.assistant.centralservicespring.config;
+
+import com.assistant.centralservicespring.repository.PersonRepositoryCustomImpl;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Предел числа значений тегов filters и sort у persons.repository.queries: каждая серия таймера несет
+ * гистограмму процентилей, поэтому сверх persons.metrics.max-tag-values новые сочетания не регистрируются
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+    @Bean
+    public MeterFilter repositoryFiltersTagLimit(@Value("${persons.metrics.max-tag-values:100}") int maxTagValues) {
+        return MeterFilter.maximumAllowableTags(PersonRepositoryCustomImpl.QUERY_TIMER, "filters",
+                maxTagValues, MeterFilter.deny());
+    }
+
+    @Bean
+    public MeterFilter repositorySortTagLimit(@Value("${persons.metrics.max-tag-values:100}") int maxTagValues) {
+        return MeterFilter.maximumAllowableTags(PersonRepositoryCustomImpl.QUERY_TIMER, "sort",
+                maxTagValues, MeterFilter.deny());
+    }
+}
@@ -0,0 +1,23 @@
+package com.assistant.centralservicespring.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Строки времени запросов основного порта (RequestTimingFilter). Фильтр стоит первым,
+ * поэтому время включает и ожидание разрешения ConcurrencyLimitFilter
+ */
+@Configuration
+@ConditionalOnProperty(name = "persons.request-timing.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTimingConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestTimingFilter> requestTimingFilter() {
+        FilterRegistrationBean<RequestTimingFilter> registration = new FilterRegistrationBean<>(new RequestTimingFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
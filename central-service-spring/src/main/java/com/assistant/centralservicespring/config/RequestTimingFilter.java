@@ -0,0 +1,76 @@
+package com.assistant.centralservicespring.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Одна строка на запрос в логгер request.timing вместо info-логов в обработчиках:
+ * method=POST uri=/central-service/ws operation=getPersons status=200 duration_us=1834.
+ * operation - метод SOAP-обработчика (его проставляет SoapMetricsInterceptor), у REST его нет.
+ * Для асинхронных ответов строка пишется по завершении ответа
+ */
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String OPERATION_ATTRIBUTE = RequestTimingFilter.class.getName() + ".operation";
+
+    private static final Logger log = LoggerFactory.getLogger("request.timing");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!log.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        logRequest(request, response.getStatus(), start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                logRequest(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), start);
+            }
+        }
+    }
+
+    private static void logRequest(HttpServletRequest request, int status, long start) {
+        long durationUs = (System.nanoTime() - start) / 1_000;
+        Object operation = request.getAttribute(OPERATION_ATTRIBUTE);
+        if (operation != null) {
+            log.info("method={} uri={} operation={} status={} duration_us={}",
+                    request.getMethod(), request.getRequestURI(), operation, status, durationUs);
+        } else {
+            log.info("method={} uri={} status={} duration_us={}",
+                    request.getMethod(), request.getRequestURI(), status, durationUs);
+        }
+    }
+}
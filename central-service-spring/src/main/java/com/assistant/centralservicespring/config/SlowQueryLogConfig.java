@@ -0,0 +1,46 @@
+package com.assistant.centralservicespring.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Журнал медленных SQL (профиль prod): dataSource оборачивается datasource-proxy,
+ * запросы дольше persons.sql.slow-query.threshold-ms пишутся логгером SlowQueryLogListener с параметрами,
+ * в лог идет доля persons.sql.slow-query.sample-rate. Вместо show-sql и BasicBinder, которые пишут каждый запрос
+ */
+@Configuration
+@ConditionalOnProperty(name = "persons.sql.slow-query.threshold-ms")
+public class SlowQueryLogConfig {
+
+    @Bean
+    public static BeanPostProcessor slowQueryLogPostProcessor(Environment environment,
+                                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        long thresholdMs = environment.getRequiredProperty("persons.sql.slow-query.threshold-ms", Long.class);
+        double sampleRate = environment.getProperty("persons.sql.slow-query.sample-rate", Double.class, 1.0);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource
+                        && !(bean instanceof ProxyDataSource)) {
+                    Counter slowQueries = Counter.builder("persons.sql.slow")
+                            .description("SQL slower than persons.sql.slow-query.threshold-ms")
+                            .register(meterRegistry.getObject());
+                    return ProxyDataSourceBuilder.create("persons", (DataSource) bean)
+                            .listener(new SlowQueryLogListener(thresholdMs, sampleRate, slowQueries))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
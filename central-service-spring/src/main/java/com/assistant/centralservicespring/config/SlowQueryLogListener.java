@@ -0,0 +1,53 @@
+package com.assistant.centralservicespring.config;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Пишет в лог SQL, выполнявшийся дольше порога, вместе с параметрами.
+ * Быстрые запросы отсекаются сравнением времени, строка лога не собирается.
+ * Медленные считаются все (persons.sql.slow), а в лог попадает только доля sampleRate -
+ * при деградации базы журнал не забивается одинаковыми запросами
+ */
+@Slf4j
+public class SlowQueryLogListener implements QueryExecutionListener {
+
+    private final long thresholdMs;
+    private final double sampleRate;
+    private final Counter slowQueries;
+    private final DefaultQueryLogEntryCreator entryCreator = new DefaultQueryLogEntryCreator();
+
+    public SlowQueryLogListener(long thresholdMs, double sampleRate, Counter slowQueries) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be within [0, 1]: " + sampleRate);
+        }
+        this.thresholdMs = thresholdMs;
+        this.sampleRate = sampleRate;
+        this.slowQueries = slowQueries;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMs) {
+            return;
+        }
+        slowQueries.increment();
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        if (log.isWarnEnabled()) {
+            log.warn("Slow query: {}", entryCreator.getLogEntry(execInfo, queryInfoList, false, false, false));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.assistant.centralservicespring.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.ws.FaultAwareWebServiceMessage;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.endpoint.MethodEndpoint;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.http.HttpServletConnection;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Метрики SOAP-операций по методу-обработчику @PayloadRoot (тег operation):
+ * soap.server.requests - гистограмма времени от входа в обработчик до готового ответа (вместе с маршаллингом JAXB),
+ * soap.server.requests.active - запросы в обработке, soap.server.errors - исключения и SOAP Fault.
+ * Имя операции также кладется в атрибут HTTP-запроса для строки RequestTimingFilter
+ */
+public class SoapMetricsInterceptor implements EndpointInterceptor {
+
+    private static final String SAMPLE_PROPERTY = SoapMetricsInterceptor.class.getName() + ".sample";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+
+    public SoapMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    static String operation(Object endpoint) {
+        if (endpoint instanceof MethodEndpoint) {
+            return ((MethodEndpoint) endpoint).getMethod().getName();
+        }
+        return endpoint != null ? endpoint.getClass().getSimpleName() : "unknown";
+    }
+
+    @Override
+    public boolean handleRequest(MessageContext messageContext, Object endpoint) {
+        String operation = operation(endpoint);
+        active(operation).incrementAndGet();
+        TransportContext transportContext = TransportContextHolder.getTransportContext();
+        if (transportContext != null && transportContext.getConnection() instanceof HttpServletConnection connection) {
+            connection.getHttpServletRequest().setAttribute(RequestTimingFilter.OPERATION_ATTRIBUTE, operation);
+        }
+        messageContext.setProperty(SAMPLE_PROPERTY, Timer.start(meterRegistry));
+        return true;
+    }
+
+    @Override
+    public boolean handleResponse(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public boolean handleFault(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex) {
+        Timer.Sample sample = (Timer.Sample) messageContext.getProperty(SAMPLE_PROPERTY);
+        if (sample == null) {
+            return;
+        }
+        String operation = operation(endpoint);
+        active(operation).decrementAndGet();
+
+        String outcome = ex != null ? "error" : hasFault(messageContext) ? "fault" : "success";
+        sample.stop(Timer.builder("soap.server.requests")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+
+        if (!"success".equals(outcome)) {
+            String exception = ex != null
+                    ? NestedExceptionUtils.getMostSpecificCause(ex).getClass().getSimpleName()
+                    : "SoapFault";
+            Counter.builder("soap.server.errors")
+                    .tag("operation", operation)
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private AtomicInteger active(String operation) {
+        return active.computeIfAbsent(operation, key ->
+                meterRegistry.gauge("soap.server.requests.active", Tags.of("operation", key), new AtomicInteger()));
+    }
+
+    private boolean hasFault(MessageContext messageContext) {
+        if (!messageContext.hasResponse()) {
+            return false;
+        }
+        WebServiceMessage response = messageContext.getResponse();
+        return response instanceof FaultAwareWebServiceMessage && ((FaultAwareWebServiceMessage) response).hasFault();
+    }
+}
@@ -0,0 +1,24 @@
+package com.assistant.centralservicespring.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.ws.soap.axiom.AxiomSoapMessageFactory;
+import org.springframework.ws.transport.http.MessageDispatcherServlet;
+
+/**
+ * Потоковые SOAP-сообщения (профиль soap-streaming): MessageDispatcherServlet берет фабрику по имени messageFactory.
+ * SAAJ строит DOM всего ответа, Axiom без кэширования тела пишет потоковый payload прямо в выходной поток
+ * и не держит в памяти входящий запрос целиком
+ */
+@Configuration
+@ConditionalOnProperty(name = "persons.soap.streaming", havingValue = "true")
+public class SoapStreamingConfig {
+
+    @Bean(name = MessageDispatcherServlet.DEFAULT_MESSAGE_FACTORY_BEAN_NAME)
+    public AxiomSoapMessageFactory messageFactory() {
+        AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setPayloadCaching(false);
+        return messageFactory;
+    }
+}
@@ -0,0 +1,66 @@
+package com.assistant.centralservicespring.config;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletRequestEvent;
+import jakarta.servlet.ServletRequestListener;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.http.HttpServletConnection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Удаление временных файлов ответа (вложения ExportPersons) по завершении HTTP-запроса:
+ * контейнер вызывает requestDestroyed после записи ответа, а также при ошибке или обрыве соединения,
+ * поэтому файл не переживает запрос и не зависит от того, дочитал ли кто-то его поток
+ */
+public class TempFileCleanupListener implements ServletRequestListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TempFileCleanupListener.class);
+
+    private static final String FILES_ATTRIBUTE = TempFileCleanupListener.class.getName() + ".files";
+
+    /**
+     * Удалить file по завершении текущего SOAP-запроса; вне HTTP-запроса - при остановке JVM
+     */
+    @SuppressWarnings("unchecked")
+    public static void deleteAfterRequest(Path file) {
+        TransportContext transportContext = TransportContextHolder.getTransportContext();
+        if (transportContext == null || !(transportContext.getConnection() instanceof HttpServletConnection connection)) {
+            file.toFile().deleteOnExit();
+            return;
+        }
+        HttpServletRequest request = connection.getHttpServletRequest();
+        List<Path> files = (List<Path>) request.getAttribute(FILES_ATTRIBUTE);
+        if (files == null) {
+            files = new ArrayList<>();
+            request.setAttribute(FILES_ATTRIBUTE, files);
+        }
+        files.add(file);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void requestDestroyed(ServletRequestEvent event) {
+        ServletRequest request = event.getServletRequest();
+        List<Path> files = (List<Path>) request.getAttribute(FILES_ATTRIBUTE);
+        if (files == null) {
+            return;
+        }
+        request.removeAttribute(FILES_ATTRIBUTE);
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete temporary file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.assistant.centralservicespring.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.MethodParameter;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.adapter.method.MethodArgumentResolver;
+import org.springframework.ws.server.endpoint.adapter.method.MethodReturnValueHandler;
+import org.springframework.ws.server.endpoint.adapter.method.jaxb.XmlRootElementPayloadMethodProcessor;
+
+/**
+ * Стандартный JAXB-обработчик @RequestPayload/@ResponsePayload с замером времени:
+ * soap.server.jaxb{operation, phase=unmarshal|marshal}, чтобы отделить JAXB от работы обработчика и запросов к базе
+ */
+public class TimedJaxbPayloadMethodProcessor implements MethodArgumentResolver, MethodReturnValueHandler {
+
+    private final XmlRootElementPayloadMethodProcessor delegate = new XmlRootElementPayloadMethodProcessor();
+    private final MeterRegistry meterRegistry;
+
+    public TimedJaxbPayloadMethodProcessor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return delegate.supportsParameter(parameter);
+    }
+
+    @Override
+    public Object resolveArgument(MessageContext messageContext, MethodParameter parameter) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return delegate.resolveArgument(messageContext, parameter);
+        } finally {
+            sample.stop(timer(parameter, "unmarshal"));
+        }
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return delegate.supportsReturnType(returnType);
+    }
+
+    @Override
+    public void handleReturnValue(MessageContext messageContext, MethodParameter returnType, Object returnValue)
+            throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            delegate.handleReturnValue(messageContext, returnType, returnValue);
+        } finally {
+            sample.stop(timer(returnType, "marshal"));
+        }
+    }
+
+    private Timer timer(MethodParameter parameter, String phase) {
+        return Timer.builder("soap.server.jaxb")
+                .tag("operation", parameter.getMethod() != null ? parameter.getMethod().getName() : "unknown")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.assistant.centralservicespring.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * Режим виртуальных потоков (профиль virtual-threads): Spring Boot переводит на них Tomcat основного порта
+ * (MessageDispatcherServlet и REST) и порта actuator, а также планировщик.
+ * Работает только на Java 21+, на более старой JVM настройка игнорируется - об этом предупреждаем при старте.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private final Environment environment;
+
+    public VirtualThreadsConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreading() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Request handling runs on virtual threads");
+        } else {
+            log.warn("spring.threads.virtual.enabled is ignored: virtual threads require Java 21, running on {}",
+                    System.getProperty("java.version"));
+        }
+    }
+}
@@ -1,19 +1,63 @@
 package com.assistant.centralservicespring.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.web.servlet.ServletListenerRegistrationBean;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.ws.config.annotation.EnableWs;
+import org.springframework.ws.config.annotation.WsConfigurer;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.endpoint.adapter.DefaultMethodEndpointAdapter;
+import org.springframework.ws.server.endpoint.adapter.method.MethodArgumentResolver;
+import org.springframework.ws.server.endpoint.adapter.method.MethodReturnValueHandler;
+import org.springframework.ws.server.endpoint.adapter.method.jaxb.XmlRootElementPayloadMethodProcessor;
 import org.springframework.ws.transport.http.MessageDispatcherServlet;
 import org.springframework.ws.wsdl.wsdl11.DefaultWsdl11Definition;
 import org.springframework.xml.xsd.SimpleXsdSchema;
 import org.springframework.xml.xsd.XsdSchema;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @EnableWs
 @Configuration
-public class WebServiceConfig {
+public class WebServiceConfig implements WsConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final TimedJaxbPayloadMethodProcessor jaxbPayloadMethodProcessor;
+
+    public WebServiceConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.jaxbPayloadMethodProcessor = new TimedJaxbPayloadMethodProcessor(meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(List<EndpointInterceptor> interceptors) {
+        interceptors.add(new SoapMetricsInterceptor(meterRegistry));
+    }
+
+    /**
+     * Пользовательские обработчики Spring-WS добавляются после стандартных, поэтому стандартный
+     * JAXB-процессор заменяется на замеряющий прямо в адаптере
+     */
+    @Bean
+    public SmartInitializingSingleton timedJaxbPayloadProcessing(DefaultMethodEndpointAdapter endpointAdapter) {
+        return () -> {
+            List<MethodArgumentResolver> resolvers = new ArrayList<>(endpointAdapter.getMethodArgumentResolvers());
+            resolvers.replaceAll(resolver -> resolver instanceof XmlRootElementPayloadMethodProcessor
+                    ? jaxbPayloadMethodProcessor : resolver);
+            endpointAdapter.setMethodArgumentResolvers(resolvers);
+
+            List<MethodReturnValueHandler> handlers = new ArrayList<>(endpointAdapter.getMethodReturnValueHandlers());
+            handlers.replaceAll(handler -> handler instanceof XmlRootElementPayloadMethodProcessor
+                    ? jaxbPayloadMethodProcessor : handler);
+            endpointAdapter.setMethodReturnValueHandlers(handlers);
+        };
+    }
 
     @Bean
     public ServletRegistrationBean<MessageDispatcherServlet> messageDispatcherServlet(ApplicationContext applicationContext) {
@@ -23,6 +67,11 @@ public class WebServiceConfig {
         return new ServletRegistrationBean<>(servlet, "/ws/*");
     }
 
+    @Bean
+    public ServletListenerRegistrationBean<TempFileCleanupListener> tempFileCleanupListener() {
+        return new ServletListenerRegistrationBean<>(new TempFileCleanupListener());
+    }
+
     @Bean(name = "persons")
     public DefaultWsdl11Definition defaultWsdl11Definition(XsdSchema personsSchema) {
         DefaultWsdl11Definition wsdl11Definition = new DefaultWsdl11Definition();
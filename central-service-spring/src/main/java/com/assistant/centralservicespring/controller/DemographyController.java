@@ -0,0 +1,30 @@
+package com.assistant.centralservicespring.controller;
+
+import com.assistant.centralservicespring.model.EyeColor;
+import com.assistant.centralservicespring.service.PersonService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Сводки по демографии для дашбордов: распределение по всем цветам глаз за один запрос
+ * вместо вызова процента для каждой пары страна/цвет
+ */
+@RestController
+@RequestMapping("/api/demography")
+public class DemographyController {
+
+    private final PersonService personService;
+
+    public DemographyController(PersonService personService) {
+        this.personService = personService;
+    }
+
+    @GetMapping("/nationality/{nationality}/eye-color/distribution")
+    public Map<EyeColor, Double> getEyeColorDistribution(@PathVariable String nationality) {
+        return personService.getEyeColorDistributionByNationality(nationality);
+    }
+}
@@ -0,0 +1,130 @@
+package com.assistant.centralservicespring.controller;
+
+import com.assistant.centralservicespring.dto.ErrorResponse;
+import com.assistant.centralservicespring.dto.PersonPage;
+import com.assistant.centralservicespring.dto.PersonQuery;
+import com.assistant.centralservicespring.model.Person;
+import com.assistant.centralservicespring.service.PersonService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST-доступ к персонам параллельно SOAP /ws: те же операции PersonService без XML-конверта и JAXB.
+ * Формат выбирается по Accept: JSON по умолчанию или компактный CBOR (application/cbor),
+ * сжатие gzip - по Accept-Encoding (server.compression)
+ */
+@RestController
+@RequestMapping(value = "/api/persons",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+public class PersonController {
+
+    private final PersonService personService;
+
+    public PersonController(PersonService personService) {
+        this.personService = personService;
+    }
+
+    @GetMapping
+    public PersonPage getPersons(PersonQuery query, HttpServletRequest request) {
+        Map<String, Object> filters = personService.createFilters(
+                query.getId(), query.getIdLt(), query.getIdGt(),
+                query.getName(), query.getHeight(), query.getHeightLt(), query.getHeightGt(),
+                query.getWeight(), query.getWeightLt(), query.getWeightGt(),
+                query.getNationality(), query.getBirthday(), query.getBirthdayLt(), query.getBirthdayGt());
+        personService.addSetAndRangeFilters(filters,
+                query.getNationalityIn(), query.getHairColorIn(), query.getEyeColorIn(),
+                query.getIdGte(), query.getIdLte(),
+                query.getHeightGte(), query.getHeightLte(),
+                query.getWeightGte(), query.getWeightLte(),
+                query.getBirthdayGte(), query.getBirthdayLte());
+
+        String[] sort = request.getParameterValues("sort");
+        List<String> sortParams = sort != null ? Arrays.asList(sort) : null;
+
+        return personService.findPage(filters, sortParams, query.getPage(), query.getSize(),
+                query.getCursor(), query.getTotalCountMode());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getPersonById(@PathVariable Integer id) {
+        return personService.findById(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> notFound(id));
+    }
+
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Person> createPerson(@Valid @RequestBody Person person) {
+        person.setId(null);
+        return ResponseEntity.status(HttpStatus.CREATED).body(personService.create(person));
+    }
+
+    @PutMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> updatePerson(@PathVariable Integer id, @Valid @RequestBody Person person) {
+        Person updated = personService.update(id, person);
+        return updated != null ? ResponseEntity.ok(updated) : notFound(id);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deletePerson(@PathVariable Integer id) {
+        return personService.delete(id) ? ResponseEntity.noContent().build() : notFound(id);
+    }
+
+    @GetMapping("/average-weight")
+    public Double getAverageWeight() {
+        Double average = personService.getAverageWeight();
+        return average != null ? average : 0.0;
+    }
+
+    @GetMapping("/count-by-location")
+    public long countByLocation(@RequestParam(required = false) Float x,
+                                @RequestParam(required = false) Integer y,
+                                @RequestParam(required = false) String name) {
+        return personService.countByLocation(x, y, name);
+    }
+
+    @GetMapping("/height-greater-than")
+    public List<Person> getPersonsByHeight(@RequestParam double minHeight) {
+        return personService.findByHeightGreaterThan(minHeight);
+    }
+
+    @GetMapping("/in-box")
+    public PersonPage getPersonsInBox(@RequestParam(defaultValue = "coordinates") String field,
+                                      @RequestParam double minX,
+                                      @RequestParam double minY,
+                                      @RequestParam double maxX,
+                                      @RequestParam double maxY,
+                                      @RequestParam(defaultValue = "0") int page,
+                                      @RequestParam(defaultValue = "20") int size,
+                                      @RequestParam(defaultValue = "EXACT") PersonPage.CountMode totalCountMode) {
+        return personService.findInBox(field, minX, minY, maxX, maxY, page, size, totalCountMode);
+    }
+
+    @GetMapping("/near")
+    public PersonPage getPersonsNear(@RequestParam(defaultValue = "coordinates") String field,
+                                     @RequestParam double x,
+                                     @RequestParam double y,
+                                     @RequestParam(required = false) Double radius,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        return personService.findNearest(field, x, y, radius, limit);
+    }
+
+    private static ResponseEntity<ErrorResponse> notFound(Integer id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorResponse.notFound("Person not found with id: " + id));
+    }
+}
@@ -0,0 +1,55 @@
+package com.assistant.centralservicespring.controller;
+
+import com.assistant.centralservicespring.service.PersonExportFormat;
+import com.assistant.centralservicespring.service.PersonExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Потоковая выгрузка персон в NDJSON или CSV
+ */
+@RestController
+@RequestMapping("/api/persons")
+public class PersonExportController {
+
+    private final PersonExportService personExportService;
+
+    public PersonExportController(PersonExportService personExportService) {
+        this.personExportService = personExportService;
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+                                                        @RequestParam(required = false) Double minHeight,
+                                                        HttpServletRequest request) {
+        PersonExportFormat exportFormat = PersonExportFormat.valueOf(format.toUpperCase());
+        Map<String, Object> filters = new HashMap<>();
+        if (minHeight != null) {
+            filters.put("height[gt]", minHeight);
+        }
+
+        // sort=name,desc нельзя связывать через @RequestParam: Spring разобьет одиночное значение по запятой
+        String[] sort = request.getParameterValues("sort");
+        List<String> sortParams = sort != null ? Arrays.asList(sort) : null;
+
+        StreamingResponseBody body = output -> personExportService.export(filters, sortParams, exportFormat, output);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"persons." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+}
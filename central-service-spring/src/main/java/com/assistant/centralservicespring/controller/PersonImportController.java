@@ -0,0 +1,44 @@
+package com.assistant.centralservicespring.controller;
+
+import com.assistant.centralservicespring.dto.BulkImportResult;
+import com.assistant.centralservicespring.service.CsvPersonImportReader;
+import com.assistant.centralservicespring.service.NdjsonPersonImportReader;
+import com.assistant.centralservicespring.service.PersonImportReader;
+import com.assistant.centralservicespring.service.PersonImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Загрузка персон потоком NDJSON или CSV, тело запроса не буферизуется целиком
+ */
+@RestController
+@RequestMapping("/api/persons")
+public class PersonImportController {
+
+    private final PersonImportService personImportService;
+    private final ObjectMapper objectMapper;
+
+    public PersonImportController(PersonImportService personImportService, ObjectMapper objectMapper) {
+        this.personImportService = personImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public BulkImportResult importNdjson(InputStream body) throws IOException {
+        try (PersonImportReader reader = new NdjsonPersonImportReader(body, objectMapper)) {
+            return personImportService.importPersons(reader);
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public BulkImportResult importCsv(InputStream body) throws IOException {
+        try (PersonImportReader reader = new CsvPersonImportReader(body)) {
+            return personImportService.importPersons(reader);
+        }
+    }
+}
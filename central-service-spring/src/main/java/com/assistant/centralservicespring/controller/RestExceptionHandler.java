@@ -0,0 +1,22 @@
+package com.assistant.centralservicespring.controller;
+
+import com.assistant.centralservicespring.dto.ErrorResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.format.DateTimeParseException;
+
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleBadInput(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(ErrorResponse.badRequest(e.getMessage()));
+    }
+
+    @ExceptionHandler(DateTimeParseException.class)
+    public ResponseEntity<ErrorResponse> handleBadDate(DateTimeParseException e) {
+        return ResponseEntity.badRequest().body(ErrorResponse.badRequest(e.getMessage()));
+    }
+}
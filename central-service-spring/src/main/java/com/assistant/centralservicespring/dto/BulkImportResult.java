@@ -0,0 +1,31 @@
+package com.assistant.centralservicespring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResult {
+
+    private int imported;
+
+    private int failed;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int row;
+
+        private String message;
+    }
+}
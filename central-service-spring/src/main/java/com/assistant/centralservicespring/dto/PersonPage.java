@@ -0,0 +1,34 @@
+package com.assistant.centralservicespring.dto;
+
+import com.assistant.centralservicespring.model.Person;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Страница списка персон, общая для SOAP GetPersons и REST /api/persons
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonPage {
+
+    private List<Person> persons = new ArrayList<>();
+
+    private boolean hasNext;
+
+    private String nextCursor;
+
+    private Long totalCount;
+
+    private CountMode totalCountMode;
+
+    public enum CountMode {
+        EXACT,
+        ESTIMATED,
+        NONE
+    }
+}
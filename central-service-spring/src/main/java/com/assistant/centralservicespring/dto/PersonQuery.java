@@ -0,0 +1,72 @@
+package com.assistant.centralservicespring.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Параметры GET /api/persons: те же фильтры и пагинация, что в SOAP GetPersonsRequest.
+ * sort сюда не входит: одиночное значение name,desc Spring разбил бы по запятой.
+ * Списки *In принимают и повторяющийся параметр, и значения через запятую
+ */
+@Data
+public class PersonQuery {
+
+    private int page = 0;
+
+    private int size = 20;
+
+    private String cursor;
+
+    private PersonPage.CountMode totalCountMode = PersonPage.CountMode.EXACT;
+
+    private Integer id;
+
+    private Integer idLt;
+
+    private Integer idGt;
+
+    private String name;
+
+    private Double height;
+
+    private Double heightLt;
+
+    private Double heightGt;
+
+    private Long weight;
+
+    private Long weightLt;
+
+    private Long weightGt;
+
+    private String nationality;
+
+    private String birthday;
+
+    private String birthdayLt;
+
+    private String birthdayGt;
+
+    private List<String> nationalityIn;
+
+    private List<String> hairColorIn;
+
+    private List<String> eyeColorIn;
+
+    private Integer idGte;
+
+    private Integer idLte;
+
+    private Double heightGte;
+
+    private Double heightLte;
+
+    private Long weightGte;
+
+    private Long weightLte;
+
+    private String birthdayGte;
+
+    private String birthdayLte;
+}
@@ -1,8 +1,12 @@
 package com.assistant.centralservicespring.endpoint;
 
+import com.assistant.centralservicespring.model.EyeColor;
 import com.assistant.centralservicespring.service.PersonService;
 import com.assistant.centralservicespring.soap.generated.CountByHairColorRequest;
 import com.assistant.centralservicespring.soap.generated.CountByHairColorResponse;
+import com.assistant.centralservicespring.soap.generated.EyeColorPercentage;
+import com.assistant.centralservicespring.soap.generated.GetEyeColorDistributionRequest;
+import com.assistant.centralservicespring.soap.generated.GetEyeColorDistributionResponse;
 import com.assistant.centralservicespring.soap.generated.GetPercentageByNationalityAndEyeColorRequest;
 import com.assistant.centralservicespring.soap.generated.GetPercentageByNationalityAndEyeColorResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +15,8 @@ import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
 import org.springframework.ws.server.endpoint.annotation.RequestPayload;
 import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
 
+import java.util.Map;
+
 @Slf4j
 @Endpoint
 public class DemographyEndpoint {
@@ -26,7 +32,7 @@ public class DemographyEndpoint {
     @ResponsePayload
     public CountByHairColorResponse countByHairColor(@RequestPayload CountByHairColorRequest request) {
         try {
-            log.info("Getting count by hair color: {}", request.getHairColor());
+            log.debug("Getting count by hair color: {}", request.getHairColor());
 
             long count = personService.countByHairColor(request.getHairColor());
 
@@ -45,7 +51,7 @@ public class DemographyEndpoint {
     public GetPercentageByNationalityAndEyeColorResponse getPercentageByNationalityAndEyeColor(
             @RequestPayload GetPercentageByNationalityAndEyeColorRequest request) {
         try {
-            log.info("Getting percentage by nationality: {}, eye color: {}",
+            log.debug("Getting percentage by nationality: {}, eye color: {}",
                     request.getNationality(), request.getEyeColor());
 
             double percentage = personService.getPercentageByNationalityAndEyeColor(
@@ -63,4 +69,30 @@ public class DemographyEndpoint {
             throw new RuntimeException("Error processing getPercentageByNationalityAndEyeColor request", e);
         }
     }
+
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetEyeColorDistributionRequest")
+    @ResponsePayload
+    public GetEyeColorDistributionResponse getEyeColorDistribution(
+            @RequestPayload GetEyeColorDistributionRequest request) {
+        try {
+            log.debug("Getting eye color distribution by nationality: {}", request.getNationality());
+
+            Map<EyeColor, Double> distribution = personService
+                    .getEyeColorDistributionByNationality(request.getNationality());
+
+            GetEyeColorDistributionResponse response = new GetEyeColorDistributionResponse();
+            for (Map.Entry<EyeColor, Double> share : distribution.entrySet()) {
+                EyeColorPercentage entry = new EyeColorPercentage();
+                entry.setEyeColor(
+                        com.assistant.centralservicespring.soap.generated.EyeColor.valueOf(share.getKey().name()));
+                entry.setPercentage(share.getValue());
+                response.getEntry().add(entry);
+            }
+
+            return response;
+        } catch (Exception e) {
+            log.error("Error getting eye color distribution: {}", e.getMessage(), e);
+            throw new RuntimeException("Error processing getEyeColorDistribution request", e);
+        }
+    }
 }
@@ -1,18 +1,31 @@
 package com.assistant.centralservicespring.endpoint;
 
+import com.assistant.centralservicespring.config.TempFileCleanupListener;
+import com.assistant.centralservicespring.dto.BulkImportResult;
+import com.assistant.centralservicespring.dto.PersonPage;
+import com.assistant.centralservicespring.service.PersonExportFormat;
+import com.assistant.centralservicespring.service.PersonExportService;
+import com.assistant.centralservicespring.service.PersonImportReader;
+import com.assistant.centralservicespring.service.PersonImportRow;
+import com.assistant.centralservicespring.service.PersonImportService;
 import com.assistant.centralservicespring.service.PersonService;
 import com.assistant.centralservicespring.soap.generated.*;
+import jakarta.activation.DataHandler;
+import jakarta.activation.DataSource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.annotation.Endpoint;
 import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
 import org.springframework.ws.server.endpoint.annotation.RequestPayload;
 import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.stream.StreamingWebServiceMessage;
 
-import javax.xml.datatype.DatatypeConfigurationException;
-import javax.xml.datatype.DatatypeFactory;
-import javax.xml.datatype.XMLGregorianCalendar;
-import java.time.LocalDate;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,8 +35,15 @@ public class PersonEndpoint {
     private static final String NAMESPACE_URI = "http://centralservicespring.assistant.com/persons";
     private final PersonService personService;
 
-    public PersonEndpoint(PersonService personService) {
+    private final PersonImportService personImportService;
+    private final PersonExportService personExportService;
+
+    public PersonEndpoint(PersonService personService,
+                          PersonImportService personImportService,
+                          PersonExportService personExportService) {
         this.personService = personService;
+        this.personImportService = personImportService;
+        this.personExportService = personExportService;
     }
 
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetPersonsRequest")
@@ -46,20 +66,29 @@ public class PersonEndpoint {
                     request.getBirthdayLt(),
                     request.getBirthdayGt()
             );
-
-            List<String> sortParams = request.getSort();
-            int page = request.getPage();
-            int size = request.getSize();
-
-            List<com.assistant.centralservicespring.model.Person> persons = 
-                    personService.findFiltered(filters, sortParams, page, size);
-            long totalCount = personService.countFiltered(filters);
+            personService.addSetAndRangeFilters(filters,
+                    request.getNationalityIn(), request.getHairColorIn(), request.getEyeColorIn(),
+                    request.getIdGte(), request.getIdLte(),
+                    request.getHeightGte(), request.getHeightLte(),
+                    request.getWeightGte(), request.getWeightLte(),
+                    request.getBirthdayGte(), request.getBirthdayLte());
+
+            TotalCountMode totalCountMode = request.getTotalCountMode() != null
+                    ? request.getTotalCountMode()
+                    : TotalCountMode.EXACT;
+            PersonPage page = personService.findPage(filters, request.getSort(), request.getPage(), request.getSize(),
+                    request.getCursor(), PersonPage.CountMode.valueOf(totalCountMode.name()));
 
             GetPersonsResponse response = new GetPersonsResponse();
-            response.getPersons().addAll(persons.stream()
+            response.getPersons().addAll(page.getPersons().stream()
                     .map(this::convertToSoapPerson)
                     .collect(Collectors.toList()));
-            response.setTotalCount((int) totalCount);
+            response.setHasNext(page.isHasNext());
+            response.setNextCursor(page.getNextCursor());
+            if (page.getTotalCount() != null) {
+                response.setTotalCount(page.getTotalCount().intValue());
+            }
+            response.setTotalCountMode(totalCountMode);
 
             return response;
         } catch (Exception e) {
@@ -87,6 +116,85 @@ public class PersonEndpoint {
         }
     }
 
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "BulkCreatePersonsRequest")
+    @ResponsePayload
+    public BulkCreatePersonsResponse bulkCreatePersons(@RequestPayload BulkCreatePersonsRequest request) {
+        try {
+            Iterator<com.assistant.centralservicespring.soap.generated.Person> persons =
+                    request.getPersons().iterator();
+            AtomicInteger row = new AtomicInteger();
+            PersonImportReader reader = () -> {
+                if (!persons.hasNext()) {
+                    return null;
+                }
+                int index = row.incrementAndGet();
+                try {
+                    return PersonImportRow.of(index, convertFromSoapPerson(persons.next()));
+                } catch (RuntimeException e) {
+                    return PersonImportRow.failed(index, "Invalid person: " + e.getMessage());
+                }
+            };
+            BulkImportResult result = personImportService.importPersons(reader);
+
+            BulkCreatePersonsResponse response = new BulkCreatePersonsResponse();
+            response.setImported(result.getImported());
+            response.setFailed(result.getFailed());
+            for (BulkImportResult.RowError error : result.getErrors()) {
+                ImportRowError soapError = new ImportRowError();
+                soapError.setRow(error.getRow());
+                soapError.setMessage(error.getMessage());
+                response.getErrors().add(soapError);
+            }
+            response.setErrorsTruncated(result.isErrorsTruncated());
+
+            return response;
+        } catch (Exception e) {
+            log.error("Error in bulkCreatePersons: {}", e.getMessage(), e);
+            throw new RuntimeException("Error processing bulkCreatePersons request", e);
+        }
+    }
+
+    /**
+     * Выгрузка персон вложением SOAP (SwA): данные потоком пишутся во временный файл,
+     * который отдается через DataHandler и удаляется по завершении HTTP-запроса (TempFileCleanupListener)
+     */
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "ExportPersonsRequest")
+    @ResponsePayload
+    public ExportPersonsResponse exportPersons(@RequestPayload ExportPersonsRequest request,
+                                               MessageContext messageContext) {
+        try {
+            PersonExportFormat format = request.getFormat() != null
+                    ? PersonExportFormat.valueOf(request.getFormat().name())
+                    : PersonExportFormat.NDJSON;
+            Map<String, Object> filters = new HashMap<>();
+            if (request.getMinHeight() != null) {
+                filters.put("height[gt]", request.getMinHeight());
+            }
+
+            Path file = Files.createTempFile("persons-export-", "." + format.getExtension());
+            TempFileCleanupListener.deleteAfterRequest(file);
+            try (OutputStream output = Files.newOutputStream(file)) {
+                personExportService.export(filters, request.getSort(), format, output);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+
+            String contentId = "persons." + format.getExtension();
+            SoapMessage soapResponse = (SoapMessage) messageContext.getResponse();
+            soapResponse.addAttachment(contentId, new DataHandler(new TempFileDataSource(file, format.getContentType())));
+
+            ExportPersonsResponse response = new ExportPersonsResponse();
+            response.setContentId(contentId);
+            response.setContentType(format.getContentType());
+
+            return response;
+        } catch (Exception e) {
+            log.error("Error in exportPersons: {}", e.getMessage(), e);
+            throw new RuntimeException("Error processing exportPersons request", e);
+        }
+    }
+
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetPersonByIdRequest")
     @ResponsePayload
     public GetPersonByIdResponse getPersonById(@RequestPayload GetPersonByIdRequest request) {
@@ -183,14 +291,90 @@ public class PersonEndpoint {
         }
     }
 
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetPersonsInBoxRequest")
+    @ResponsePayload
+    public GetPersonsInBoxResponse getPersonsInBox(@RequestPayload GetPersonsInBoxRequest request) {
+        try {
+            TotalCountMode totalCountMode = request.getTotalCountMode() != null
+                    ? request.getTotalCountMode()
+                    : TotalCountMode.EXACT;
+            PersonPage page = personService.findInBox(spatialField(request.getField()),
+                    request.getMinX(), request.getMinY(), request.getMaxX(), request.getMaxY(),
+                    request.getPage(), request.getSize(), PersonPage.CountMode.valueOf(totalCountMode.name()));
+
+            GetPersonsInBoxResponse response = new GetPersonsInBoxResponse();
+            response.getPersons().addAll(page.getPersons().stream()
+                    .map(this::convertToSoapPerson)
+                    .collect(Collectors.toList()));
+            if (page.getTotalCount() != null) {
+                response.setTotalCount(page.getTotalCount().intValue());
+            }
+            response.setTotalCountMode(totalCountMode);
+            response.setHasNext(page.isHasNext());
+
+            return response;
+        } catch (Exception e) {
+            log.error("Error in getPersonsInBox: {}", e.getMessage(), e);
+            throw new RuntimeException("Error processing getPersonsInBox request", e);
+        }
+    }
+
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetPersonsNearRequest")
+    @ResponsePayload
+    public GetPersonsNearResponse getPersonsNear(@RequestPayload GetPersonsNearRequest request) {
+        try {
+            PersonPage page = personService.findNearest(spatialField(request.getField()),
+                    request.getX(), request.getY(), request.getRadius(), request.getLimit());
+
+            GetPersonsNearResponse response = new GetPersonsNearResponse();
+            response.getPersons().addAll(page.getPersons().stream()
+                    .map(this::convertToSoapPerson)
+                    .collect(Collectors.toList()));
+            if (page.getTotalCount() != null) {
+                response.setTotalCount(page.getTotalCount().intValue());
+            }
+
+            return response;
+        } catch (Exception e) {
+            log.error("Error in getPersonsNear: {}", e.getMessage(), e);
+            throw new RuntimeException("Error processing getPersonsNear request", e);
+        }
+    }
+
+    private static String spatialField(SpatialField field) {
+        return field != null ? field.value() : SpatialField.COORDINATES.value();
+    }
+
+    /**
+     * С limit - страница по (height, id) с continuationToken; без limit на Axiom (профиль soap-streaming)
+     * ответ пишется потоком прямо из курсора, на SAAJ - собирается целиком, как раньше
+     */
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetPersonsByHeightRequest")
     @ResponsePayload
-    public GetPersonsByHeightResponse getPersonsByHeight(@RequestPayload GetPersonsByHeightRequest request) {
+    public GetPersonsByHeightResponse getPersonsByHeight(@RequestPayload GetPersonsByHeightRequest request,
+                                                         MessageContext messageContext) {
         try {
+            GetPersonsByHeightResponse response = new GetPersonsByHeightResponse();
+
+            if (request.getLimit() != null) {
+                PersonPage page = personService.findByHeightGreaterThan(
+                        request.getMinHeight(), request.getLimit(), request.getContinuationToken());
+                response.getPersons().addAll(page.getPersons().stream()
+                        .map(this::convertToSoapPerson)
+                        .collect(Collectors.toList()));
+                response.setContinuationToken(page.getNextCursor());
+                return response;
+            }
+
+            if (messageContext.getResponse() instanceof StreamingWebServiceMessage streamingResponse) {
+                streamingResponse.setStreamingPayload(new PersonsByHeightStreamingPayload(
+                        request.getMinHeight(), personExportService, this::convertToSoapPerson));
+                return null;
+            }
+
             List<com.assistant.centralservicespring.model.Person> persons = 
                     personService.findByHeightGreaterThan(request.getMinHeight());
 
-            GetPersonsByHeightResponse response = new GetPersonsByHeightResponse();
             response.getPersons().addAll(persons.stream()
                     .map(this::convertToSoapPerson)
                     .collect(Collectors.toList()));
@@ -202,7 +386,7 @@ public class PersonEndpoint {
         }
     }
 
-    private com.assistant.centralservicespring.soap.generated.Person convertToSoapPerson(
+    com.assistant.centralservicespring.soap.generated.Person convertToSoapPerson(
             com.assistant.centralservicespring.model.Person person) {
         com.assistant.centralservicespring.soap.generated.Person soapPerson = 
                 new com.assistant.centralservicespring.soap.generated.Person();
@@ -210,11 +394,11 @@ public class PersonEndpoint {
         soapPerson.setId(person.getId());
         soapPerson.setName(person.getName());
         soapPerson.setHeight(person.getHeight());
-        soapPerson.setBirthday(convertToXMLGregorianCalendar(person.getBirthday()));
+        soapPerson.setBirthday(XmlDateConverter.toXml(person.getBirthday()));
         soapPerson.setWeight(person.getWeight());
 
         if (person.getCreationDate() != null) {
-            soapPerson.setCreationDate(convertToXMLGregorianCalendar(person.getCreationDate()));
+            soapPerson.setCreationDate(XmlDateConverter.toXml(person.getCreationDate()));
         }
 
         com.assistant.centralservicespring.soap.generated.Coordinates coords = 
@@ -246,7 +430,7 @@ public class PersonEndpoint {
         return soapPerson;
     }
 
-    private com.assistant.centralservicespring.model.Person convertFromSoapPerson(
+    com.assistant.centralservicespring.model.Person convertFromSoapPerson(
             com.assistant.centralservicespring.soap.generated.Person soapPerson) {
         com.assistant.centralservicespring.model.Person person = 
                 new com.assistant.centralservicespring.model.Person();
@@ -256,7 +440,7 @@ public class PersonEndpoint {
         }
         person.setName(soapPerson.getName());
         person.setHeight(soapPerson.getHeight());
-        person.setBirthday(convertFromXMLGregorianCalendar(soapPerson.getBirthday()));
+        person.setBirthday(XmlDateConverter.toLocalDate(soapPerson.getBirthday()));
         person.setWeight(soapPerson.getWeight());
 
         com.assistant.centralservicespring.model.Coordinates coords = 
@@ -288,28 +472,36 @@ public class PersonEndpoint {
         return person;
     }
 
-    private XMLGregorianCalendar convertToXMLGregorianCalendar(LocalDate date) {
-        try {
-            return DatatypeFactory.newInstance().newXMLGregorianCalendar(date.toString());
-        } catch (DatatypeConfigurationException e) {
-            throw new RuntimeException("Error converting LocalDate to XMLGregorianCalendar", e);
+    private static final class TempFileDataSource implements DataSource {
+        private final Path file;
+        private final String contentType;
+
+        private TempFileDataSource(Path file, String contentType) {
+            this.file = file;
+            this.contentType = contentType;
         }
-    }
 
-    private XMLGregorianCalendar convertToXMLGregorianCalendar(Date date) {
-        try {
-            GregorianCalendar calendar = new GregorianCalendar();
-            calendar.setTime(date);
-            return DatatypeFactory.newInstance().newXMLGregorianCalendar(calendar);
-        } catch (DatatypeConfigurationException e) {
-            throw new RuntimeException("Error converting Date to XMLGregorianCalendar", e);
+        /**
+         * Каждый вызов - новый поток с начала файла: файл удаляется не здесь, а по завершении запроса
+         */
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(file);
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            throw new UnsupportedOperationException("Export attachment is read-only");
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
         }
-    }
 
-    private LocalDate convertFromXMLGregorianCalendar(XMLGregorianCalendar calendar) {
-        if (calendar == null) {
-            return null;
+        @Override
+        public String getName() {
+            return file.getFileName().toString();
         }
-        return calendar.toGregorianCalendar().toZonedDateTime().toLocalDate();
     }
 }
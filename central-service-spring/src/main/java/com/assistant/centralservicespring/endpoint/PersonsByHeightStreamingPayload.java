@@ -0,0 +1,87 @@
+package com.assistant.centralservicespring.endpoint;
+
+import com.assistant.centralservicespring.service.PersonExportService;
+import com.assistant.centralservicespring.service.PersonService;
+import com.assistant.centralservicespring.soap.generated.Person;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import org.springframework.ws.stream.StreamingPayload;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.util.function.Function;
+
+/**
+ * Тело GetPersonsByHeightResponse, которое пишется StAX прямо в ответ по мере чтения курсора:
+ * в памяти одновременно находится одна персона, поэтому расход памяти не зависит от размера выборки.
+ * Сериализуется уже после выхода из обработчика, так что ошибка базы посреди выдачи обрывает ответ, а не дает SOAP Fault
+ */
+class PersonsByHeightStreamingPayload implements StreamingPayload {
+
+    private static final String NAMESPACE_URI = "http://centralservicespring.assistant.com/persons";
+    private static final QName NAME = new QName(NAMESPACE_URI, "GetPersonsByHeightResponse", "tns");
+    private static final QName PERSONS = new QName(NAMESPACE_URI, "persons", "tns");
+
+    private static volatile JAXBContext jaxbContext;
+
+    private final double minHeight;
+    private final PersonExportService personExportService;
+    private final Function<com.assistant.centralservicespring.model.Person, Person> converter;
+
+    PersonsByHeightStreamingPayload(double minHeight,
+                                    PersonExportService personExportService,
+                                    Function<com.assistant.centralservicespring.model.Person, Person> converter) {
+        this.minHeight = minHeight;
+        this.personExportService = personExportService;
+        this.converter = converter;
+    }
+
+    @Override
+    public QName getName() {
+        return NAME;
+    }
+
+    @Override
+    public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+        Marshaller marshaller;
+        try {
+            marshaller = jaxbContext().createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        } catch (JAXBException e) {
+            throw new XMLStreamException("Error creating marshaller", e);
+        }
+
+        writer.writeStartElement(NAME.getPrefix(), NAME.getLocalPart(), NAMESPACE_URI);
+        writer.writeNamespace(NAME.getPrefix(), NAMESPACE_URI);
+        try {
+            personExportService.stream(PersonService.heightGreaterThanFilter(minHeight), PersonService.HEIGHT_ORDER,
+                    person -> {
+                        try {
+                            marshaller.marshal(new JAXBElement<>(PERSONS, Person.class, converter.apply(person)), writer);
+                        } catch (JAXBException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+        } catch (IllegalStateException e) {
+            throw new XMLStreamException("Error writing persons", e.getCause() instanceof JAXBException ? e.getCause() : e);
+        }
+        writer.writeEndElement();
+    }
+
+    private static JAXBContext jaxbContext() throws JAXBException {
+        JAXBContext context = jaxbContext;
+        if (context == null) {
+            synchronized (PersonsByHeightStreamingPayload.class) {
+                context = jaxbContext;
+                if (context == null) {
+                    context = JAXBContext.newInstance(Person.class);
+                    jaxbContext = context;
+                }
+            }
+        }
+        return context;
+    }
+}
@@ -0,0 +1,60 @@
+package com.assistant.centralservicespring.endpoint;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+/**
+ * Преобразование дат для SOAP-маппинга: один DatatypeFactory на все вызовы (реализация JDK не хранит
+ * состояния и потокобезопасна) и заполнение XMLGregorianCalendar по полям, без разбора строк и GregorianCalendar.
+ */
+final class XmlDateConverter {
+
+    private static final DatatypeFactory DATATYPE_FACTORY = createDatatypeFactory();
+
+    private XmlDateConverter() {
+    }
+
+    static XMLGregorianCalendar toXml(LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        return DATATYPE_FACTORY.newXMLGregorianCalendarDate(
+                date.getYear(), date.getMonthValue(), date.getDayOfMonth(), DatatypeConstants.FIELD_UNDEFINED);
+    }
+
+    /**
+     * Дата-время в часовом поясе сервера с миллисекундами и смещением, как у GregorianCalendar
+     */
+    static XMLGregorianCalendar toXml(Date date) {
+        if (date == null) {
+            return null;
+        }
+        ZonedDateTime dateTime = date.toInstant().atZone(ZoneId.systemDefault());
+        return DATATYPE_FACTORY.newXMLGregorianCalendar(
+                dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(),
+                dateTime.getNano() / 1_000_000,
+                dateTime.getOffset().getTotalSeconds() / 60);
+    }
+
+    static LocalDate toLocalDate(XMLGregorianCalendar calendar) {
+        if (calendar == null) {
+            return null;
+        }
+        return LocalDate.of(calendar.getYear(), calendar.getMonth(), calendar.getDay());
+    }
+
+    private static DatatypeFactory createDatatypeFactory() {
+        try {
+            return DatatypeFactory.newInstance();
+        } catch (DatatypeConfigurationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
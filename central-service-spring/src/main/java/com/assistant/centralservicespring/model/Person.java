@@ -5,11 +5,15 @@ import jakarta.persistence.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.Date;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Person.CACHE_REGION)
 @Setter
 @Getter
 @AllArgsConstructor
@@ -17,6 +21,11 @@ import java.util.Date;
 @Table(name = "persons")
 public class Person {
 
+    /**
+     * Регион кэша второго уровня (включается профилем l2cache, настройки в ehcache.xml)
+     */
+    public static final String CACHE_REGION = "persons";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Positive(message = "ID должно быть больше 0")
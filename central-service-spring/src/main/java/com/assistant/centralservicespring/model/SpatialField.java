@@ -0,0 +1,20 @@
+package com.assistant.centralservicespring.model;
+
+/**
+ * Точка персоны для поиска по области: Coordinates или Location.
+ * Выражение point(x, y) совпадает с выражением GiST-индекса (миграция V4), иначе индекс не используется
+ */
+public enum SpatialField {
+    COORDINATES("point(coord_x, coord_y)"),
+    LOCATION("point(location_x, location_y)");
+
+    private final String pointSql;
+
+    SpatialField(String pointSql) {
+        this.pointSql = pointSql;
+    }
+
+    public String getPointSql() {
+        return pointSql;
+    }
+}
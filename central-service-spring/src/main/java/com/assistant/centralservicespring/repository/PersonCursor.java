@@ -0,0 +1,116 @@
+package com.assistant.centralservicespring.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Непрозрачный курсор keyset-пагинации: сортировка, для которой он выдан,
+ * и значения ключей сортировки последней строки страницы (id всегда последний).
+ */
+public final class PersonCursor {
+
+    private final String sortSignature;
+    private final List<Object> values;
+
+    private PersonCursor(String sortSignature, List<Object> values) {
+        this.sortSignature = sortSignature;
+        this.values = values;
+    }
+
+    public String getSortSignature() {
+        return sortSignature;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    public static String encode(String sortSignature, List<Object> values) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(sortSignature);
+            out.writeByte(values.size());
+            for (Object value : values) {
+                writeValue(out, value);
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Error encoding cursor", e);
+        }
+    }
+
+    public static PersonCursor decode(String token) {
+        try {
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)));
+            String sortSignature = in.readUTF();
+            int count = in.readUnsignedByte();
+            List<Object> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                values.add(readValue(in));
+            }
+            return new PersonCursor(sortSignature, values);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte('N');
+        } else if (value instanceof Integer) {
+            out.writeByte('I');
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte('L');
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte('D');
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte('F');
+            out.writeFloat((Float) value);
+        } else if (value instanceof LocalDate) {
+            out.writeByte('T');
+            out.writeLong(((LocalDate) value).toEpochDay());
+        } else if (value instanceof Enum) {
+            out.writeByte('E');
+            out.writeUTF(((Enum<?>) value).name());
+        } else {
+            out.writeByte('S');
+            out.writeUTF(value.toString());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        int type = in.readUnsignedByte();
+        switch (type) {
+            case 'N':
+                return null;
+            case 'I':
+                return in.readInt();
+            case 'L':
+                return in.readLong();
+            case 'D':
+                return in.readDouble();
+            case 'F':
+                return in.readFloat();
+            case 'T':
+                return LocalDate.ofEpochDay(in.readLong());
+            case 'E':
+            case 'S':
+                return in.readUTF();
+            default:
+                throw new IOException("Unknown value type: " + type);
+        }
+    }
+}
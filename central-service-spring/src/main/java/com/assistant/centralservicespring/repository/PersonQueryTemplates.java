@@ -0,0 +1,254 @@
+package com.assistant.centralservicespring.repository;
+
+import com.assistant.centralservicespring.model.Country;
+import com.assistant.centralservicespring.model.EyeColor;
+import com.assistant.centralservicespring.model.HairColor;
+import com.assistant.centralservicespring.model.Person;
+import com.assistant.personquery.FilterCondition;
+import com.assistant.personquery.InvalidFilterException;
+import com.assistant.personquery.JpqlFilters;
+import com.assistant.personquery.PersonField;
+import com.assistant.personquery.PersonFilter;
+import com.assistant.personquery.PredicateCostModel;
+import com.assistant.personquery.SortKey;
+import jakarta.persistence.Query;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.query.BindableType;
+import org.hibernate.query.sqm.SqmPathSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Готовые JPQL-шаблоны запросов списка персон по сигнатуре: вид запроса, сигнатура фильтра,
+ * сортировка, а для keyset - какие значения курсора NULL. Запросу остается только привязать параметры.
+ * Одинаковый текст JPQL Hibernate берет из своего кэша планов вместо разбора и перевода Criteria в SQL,
+ * а одинаковый текст SQL драйвер PostgreSQL после prepareThreshold выполнений на соединении
+ * переводит в серверный prepared statement.
+ * Шаблоны сверх maxEntries строятся без кэширования
+ */
+final class PersonQueryTemplates {
+
+    enum Kind {
+        PAGE, KEYSET, COUNT
+    }
+
+    /**
+     * Порядок условий в WHERE; зависит только от ключей, так что одной сигнатуре соответствует один текст
+     */
+    private static final PredicateCostModel COST_MODEL = PredicateCostModel.DEFAULT;
+
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    PersonQueryTemplates(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    Template get(Kind kind, PersonFilter filter, List<SortKey> sortKeys, List<Object> cursorValues) {
+        int nullMask = 0;
+        if (cursorValues != null) {
+            for (int i = 0; i < cursorValues.size(); i++) {
+                if (cursorValues.get(i) == null) {
+                    nullMask |= 1 << i;
+                }
+            }
+        }
+
+        StringBuilder signature = new StringBuilder(64)
+                .append(kind.ordinal()).append(':').append(filter.getSignature()).append(':')
+                .append(cursorValues != null ? nullMask : -1);
+        if (kind != Kind.COUNT) {
+            for (SortKey sortKey : sortKeys) {
+                signature.append(':').append(sortKey.getField().getPath()).append(sortKey.isAscending() ? "+" : "-");
+            }
+        }
+        String key = signature.toString();
+
+        Template template = templates.get(key);
+        if (template == null) {
+            template = build(kind, filter, sortKeys, cursorValues);
+            if (templates.size() < maxEntries) {
+                Template existing = templates.putIfAbsent(key, template);
+                if (existing != null) {
+                    template = existing;
+                }
+            }
+        }
+        return template;
+    }
+
+    private static Template build(Kind kind, PersonFilter filter, List<SortKey> sortKeys, List<Object> cursorValues) {
+        StringBuilder jpql = new StringBuilder(kind == Kind.COUNT ? "select count(*) from Person p" : "select p from Person p");
+
+        List<String> conditions = new ArrayList<>();
+        List<FilterCondition> filterConditions = filter.ordered(COST_MODEL);
+        for (int i = 0; i < filterConditions.size(); i++) {
+            conditions.add(JpqlFilters.condition("p", filterConditions.get(i), "f" + i));
+        }
+        if (cursorValues != null) {
+            conditions.add(seekCondition(sortKeys, cursorValues));
+        }
+        if (!conditions.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", conditions));
+        }
+
+        if (kind != Kind.COUNT) {
+            jpql.append(" order by ");
+            if (sortKeys.isEmpty()) {
+                jpql.append("p.id asc");
+            }
+            for (int i = 0; i < sortKeys.size(); i++) {
+                if (i > 0) {
+                    jpql.append(", ");
+                }
+                SortKey sortKey = sortKeys.get(i);
+                jpql.append("p.").append(sortKey.getField().getPath()).append(sortKey.isAscending() ? " asc" : " desc");
+            }
+        }
+
+        List<PersonField> cursorFields = new ArrayList<>();
+        if (cursorValues != null) {
+            for (SortKey sortKey : sortKeys) {
+                cursorFields.add(sortKey.getField());
+            }
+        }
+        return new Template(jpql.toString(), cursorFields,
+                cursorValues != null && SortKey.isRowComparable(sortKeys));
+    }
+
+    /**
+     * То же условие "строка идет после курсора", что и buildSeekPredicate: сравнение строк (k1, ..., id) > (...)
+     * для ключей NOT NULL в одном направлении, иначе k1 после v1 OR (k1 = v1 AND k2 после v2) OR ...,
+     * где для колонок, допускающих NULL, учитывается, что NULL в PostgreSQL идут последними при ASC
+     */
+    private static String seekCondition(List<SortKey> sortKeys, List<Object> cursorValues) {
+        if (SortKey.isRowComparable(sortKeys)) {
+            List<String> paths = new ArrayList<>();
+            List<String> parameters = new ArrayList<>();
+            for (int i = 0; i < sortKeys.size(); i++) {
+                paths.add("p." + sortKeys.get(i).getField().getPath());
+                parameters.add(":c" + i);
+            }
+            return "(" + String.join(", ", paths) + ")" + (sortKeys.get(0).isAscending() ? " > " : " < ")
+                    + "(" + String.join(", ", parameters) + ")";
+        }
+
+        List<String> alternatives = new ArrayList<>();
+        List<String> equalPrefix = new ArrayList<>();
+
+        for (int i = 0; i < sortKeys.size(); i++) {
+            SortKey sortKey = sortKeys.get(i);
+            String path = "p." + sortKey.getField().getPath();
+            String parameter = ":c" + i;
+            boolean isNull = cursorValues.get(i) == null;
+
+            String after;
+            if (isNull) {
+                after = sortKey.isAscending() ? null : path + " is not null";
+            } else {
+                if (!sortKey.isAscending()) {
+                    after = path + " < " + parameter;
+                } else if (sortKey.getField().isNullable()) {
+                    after = "(" + path + " > " + parameter + " or " + path + " is null)";
+                } else {
+                    after = path + " > " + parameter;
+                }
+            }
+            if (after != null) {
+                List<String> alternative = new ArrayList<>(equalPrefix);
+                alternative.add(after);
+                alternatives.add("(" + String.join(" and ", alternative) + ")");
+            }
+
+            equalPrefix.add(isNull ? path + " is null" : path + " = " + parameter);
+        }
+
+        if (alternatives.isEmpty()) {
+            return "1 = 0";
+        }
+        return "(" + String.join(" or ", alternatives) + ")";
+    }
+
+    /**
+     * Имя константы в перечисление атрибута; остальные значения уже нужного типа
+     */
+    private static Object toAttributeType(PersonField field, Object value) {
+        if (!(value instanceof String)) {
+            return value;
+        }
+        try {
+            switch (field) {
+                case NATIONALITY:
+                    return Country.valueOf((String) value);
+                case HAIR_COLOR:
+                    return HairColor.valueOf((String) value);
+                case EYE_COLOR:
+                    return EyeColor.valueOf((String) value);
+                default:
+                    return value;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFilterException("Unknown " + field.getPath() + ": " + value, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BindableType<Object> attributeType(Metamodel metamodel, PersonField field) {
+        ManagedType<?> type = metamodel.entity(Person.class);
+        Attribute<?, ?> attribute = null;
+        for (String segment : field.getPath().split("\\.")) {
+            if (attribute != null) {
+                type = (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+            }
+            attribute = type.getAttribute(segment);
+        }
+        return (BindableType<Object>) ((SqmPathSource<?>) attribute).getSqmPathType();
+    }
+
+    static final class Template {
+
+        private final String jpql;
+        private final List<PersonField> cursorFields;
+        private final boolean rowComparison;
+
+        private Template(String jpql, List<PersonField> cursorFields, boolean rowComparison) {
+            this.jpql = jpql;
+            this.cursorFields = cursorFields;
+            this.rowComparison = rowComparison;
+        }
+
+        String getJpql() {
+            return jpql;
+        }
+
+        <Q extends Query> Q bind(Q query, PersonFilter filter, List<Object> cursorValues) {
+            List<FilterCondition> filterConditions = filter.ordered(COST_MODEL);
+            for (int i = 0; i < filterConditions.size(); i++) {
+                JpqlFilters.bind(query, filterConditions.get(i), "f" + i, PersonQueryTemplates::toAttributeType);
+            }
+            for (int i = 0; i < cursorFields.size(); i++) {
+                Object value = cursorValues.get(i);
+                if (value == null) {
+                    continue;
+                }
+                value = toAttributeType(cursorFields.get(i), value);
+                if (rowComparison) {
+                    // Внутри кортежа Hibernate не выводит тип параметра из колонки и привязал бы перечисление
+                    // числом, поэтому тип берется из атрибута сущности
+                    org.hibernate.query.Query<?> hibernateQuery = query.unwrap(org.hibernate.query.Query.class);
+                    hibernateQuery.setParameter("c" + i, value,
+                            attributeType(hibernateQuery.getSession().getFactory().getMetamodel(), cursorFields.get(i)));
+                } else {
+                    query.setParameter("c" + i, value);
+                }
+            }
+            return query;
+        }
+    }
+}
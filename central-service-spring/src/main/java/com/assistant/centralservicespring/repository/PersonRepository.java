@@ -29,4 +29,8 @@ public interface PersonRepository extends JpaRepository<Person, Integer>, Person
     @Query("SELECT COUNT(p) FROM Person p WHERE p.nationality = :nationality AND p.eyeColor = :eyeColor")
     long countByNationalityAndEyeColor(@Param("nationality") Country nationality,
                                        @Param("eyeColor") EyeColor eyeColor);
+
+    @Query("SELECT p.nationality, p.eyeColor, p.hairColor, COUNT(p) FROM Person p " +
+            "GROUP BY p.nationality, p.eyeColor, p.hairColor")
+    List<Object[]> countGroupedByDemography();
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package com.assistant.centralservicespring.repository;
 
+import com.assistant.centralservicespring.model.EyeColor;
 import com.assistant.centralservicespring.model.Person;
+import com.assistant.centralservicespring.model.SpatialField;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface PersonRepositoryCustom {
 
@@ -12,9 +15,68 @@ public interface PersonRepositoryCustom {
                                         int page,
                                         int size);
 
+    /**
+     * То же, что и findWithFiltersAndSort, но выбирает до maxResults строк начиная с page * size,
+     * например size + 1, чтобы узнать, есть ли следующая страница
+     */
+    List<Person> findWithFiltersAndSort(Map<String, Object> filters,
+                                        List<String> sortParams,
+                                        int page,
+                                        int size,
+                                        int maxResults);
+
+    /**
+     * Keyset-пагинация: страница строк, идущих после строки, закодированной в курсоре.
+     * Пустой или null курсор означает первую страницу.
+     */
+    List<Person> findWithFiltersAndSortAfter(Map<String, Object> filters,
+                                             List<String> sortParams,
+                                             String cursor,
+                                             int size);
+
+    String buildCursor(List<String> sortParams, Person last);
+
     long countWithFilters(Map<String, Object> filters);
 
+    /**
+     * Проходит по отфильтрованным персонам серверным курсором в stateless-сессии:
+     * строки читаются порциями по fetchSize и сразу передаются в consumer, не накапливаясь в памяти
+     */
+    void streamWithFilters(Map<String, Object> filters,
+                           List<String> sortParams,
+                           int fetchSize,
+                           Consumer<Person> consumer);
+
+    /**
+     * Оценка числа строк таблицы persons по статистике планировщика PostgreSQL (pg_class.reltuples),
+     * отрицательное значение, если таблица еще не анализировалась
+     */
+    long estimateTotalCount();
+
     long countByLocation(Float x, Integer y, String name);
 
+    /**
+     * Персоны, чья точка field лежит в прямоугольнике (границы включительно), по id:
+     * до maxResults строк начиная с offset
+     */
+    List<Person> findInBox(SpatialField field, double minX, double minY, double maxX, double maxY,
+                           int offset, int maxResults);
+
+    long countInBox(SpatialField field, double minX, double minY, double maxX, double maxY);
+
+    /**
+     * limit ближайших к (x, y) по евклидову расстоянию, при равном расстоянии - по id;
+     * с radius - только в круге (граница включительно)
+     */
+    List<Person> findNearest(SpatialField field, double x, double y, Double radius, int limit);
+
+    long countWithinRadius(SpatialField field, double x, double y, double radius);
+
     double getPercentageByNationalityAndEyeColor(String nationality, String eyeColor);
+
+    /**
+     * Процент персон каждого цвета глаз среди граждан страны, считается одним GROUP BY;
+     * в результате есть все значения EyeColor, отсутствующие - с нулем
+     */
+    Map<EyeColor, Double> getEyeColorDistributionByNationality(String nationality);
 }
\ No newline at end of file
@@ -3,59 +3,185 @@ package com.assistant.centralservicespring.repository;
 import com.assistant.centralservicespring.model.Country;
 import com.assistant.centralservicespring.model.EyeColor;
 import com.assistant.centralservicespring.model.Person;
+import com.assistant.centralservicespring.model.SpatialField;
+import com.assistant.personquery.CriteriaFilters;
+import com.assistant.personquery.PersonField;
+import com.assistant.personquery.PersonFilter;
+import com.assistant.personquery.PredicateCostModel;
+import com.assistant.personquery.SortKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.Query;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.sqm.internal.SqmCriteriaNodeBuilder;
+import org.hibernate.query.sqm.tree.expression.SqmExpression;
+import org.hibernate.query.sqm.tree.expression.SqmTuple;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Repository
 public class PersonRepositoryCustomImpl implements PersonRepositoryCustom {
 
+    /**
+     * Регион кэша запросов для страниц выборки; без профиля l2cache подсказки игнорируются
+     */
+    public static final String PAGES_CACHE_REGION = "persons-pages";
+
+    /**
+     * Время выполнения запросов с тегами query, filters (ключи фильтров), sort (первый ключ сортировки) и outcome
+     */
+    public static final String QUERY_TIMER = "persons.repository.queries";
+    private static final String NONE = "none";
+    private static final String MULTI = "multi";
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * JPQL-шаблоны по сигнатуре запроса; null - запросы каждый раз строятся через Criteria
+     */
+    private final PersonQueryTemplates queryTemplates;
+
+    public PersonRepositoryCustomImpl(MeterRegistry meterRegistry,
+                                      @Value("${persons.query-templates.enabled:true}") boolean queryTemplatesEnabled,
+                                      @Value("${persons.query-templates.max-entries:1000}") int maxQueryTemplates) {
+        this.meterRegistry = meterRegistry;
+        this.queryTemplates = queryTemplatesEnabled ? new PersonQueryTemplates(maxQueryTemplates) : null;
+    }
+
     @Override
     public List<Person> findWithFiltersAndSort(Map<String, Object> filters,
                                                List<String> sortParams,
                                                int page,
                                                int size) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Person> query = cb.createQuery(Person.class);
-        Root<Person> root = query.from(Person.class);
+        return findWithFiltersAndSort(filters, sortParams, page, size, size);
+    }
 
-        List<Predicate> predicates = buildPredicates(cb, root, filters);
-        if (!predicates.isEmpty()) {
-            query.where(cb.and(predicates.toArray(new Predicate[0])));
-        }
+    @Override
+    public List<Person> findWithFiltersAndSort(Map<String, Object> filters,
+                                               List<String> sortParams,
+                                               int page,
+                                               int size,
+                                               int maxResults) {
+        PersonFilter filter = PersonFilter.compile(filters);
+        return timed("page", filter, sortParams, () -> queryPage(filter, sortParams, page, size, maxResults));
+    }
 
-        List<Order> orders = buildOrders(cb, root, sortParams);
-        if (!orders.isEmpty()) {
-            query.orderBy(orders);
+    private List<Person> queryPage(PersonFilter filter,
+                                   List<String> sortParams,
+                                   int page,
+                                   int size,
+                                   int maxResults) {
+        TypedQuery<Person> typedQuery;
+        if (queryTemplates != null) {
+            PersonQueryTemplates.Template template = queryTemplates.get(
+                    PersonQueryTemplates.Kind.PAGE, filter, SortKey.parse(sortParams), null);
+            typedQuery = template.bind(entityManager.createQuery(template.getJpql(), Person.class), filter, null);
+        } else {
+            typedQuery = entityManager.createQuery(buildListQuery(entityManager.getCriteriaBuilder(), filter, sortParams));
         }
 
-        TypedQuery<Person> typedQuery = entityManager.createQuery(query);
-
         typedQuery.setFirstResult(page * size);
-        typedQuery.setMaxResults(size);
+        typedQuery.setMaxResults(maxResults);
+        typedQuery.setHint(HibernateHints.HINT_CACHEABLE, true);
+        typedQuery.setHint(HibernateHints.HINT_CACHE_REGION, PAGES_CACHE_REGION);
 
         return typedQuery.getResultList();
     }
 
+    @Override
+    public List<Person> findWithFiltersAndSortAfter(Map<String, Object> filters,
+                                                    List<String> sortParams,
+                                                    String cursor,
+                                                    int size) {
+        PersonFilter filter = PersonFilter.compile(filters);
+        return timed("keyset", filter, sortParams, () -> queryAfter(filter, sortParams, cursor, size));
+    }
+
+    private List<Person> queryAfter(PersonFilter filter,
+                                    List<String> sortParams,
+                                    String cursor,
+                                    int size) {
+        List<SortKey> sortKeys = buildKeysetSortKeys(sortParams);
+
+        List<Object> cursorValues = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            PersonCursor decoded = PersonCursor.decode(cursor);
+            if (!decoded.getSortSignature().equals(sortSignature(sortKeys))
+                    || decoded.getValues().size() != sortKeys.size()) {
+                throw new IllegalArgumentException("Cursor does not match requested sort order");
+            }
+            cursorValues = decoded.getValues();
+        }
+
+        TypedQuery<Person> typedQuery;
+        if (queryTemplates != null) {
+            PersonQueryTemplates.Template template = queryTemplates.get(
+                    PersonQueryTemplates.Kind.KEYSET, filter, sortKeys, cursorValues);
+            typedQuery = template.bind(entityManager.createQuery(template.getJpql(), Person.class),
+                    filter, cursorValues);
+        } else {
+            typedQuery = entityManager.createQuery(buildKeysetQuery(filter, sortKeys, cursorValues));
+        }
+
+        return typedQuery
+                .setMaxResults(size)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, PAGES_CACHE_REGION)
+                .getResultList();
+    }
+
+    @Override
+    public String buildCursor(List<String> sortParams, Person last) {
+        List<SortKey> sortKeys = buildKeysetSortKeys(sortParams);
+        List<Object> values = new ArrayList<>(sortKeys.size());
+        for (SortKey sortKey : sortKeys) {
+            values.add(getSortValue(last, sortKey.getField()));
+        }
+        return PersonCursor.encode(sortSignature(sortKeys), values);
+    }
+
     @Override
     public long countWithFilters(Map<String, Object> filters) {
+        PersonFilter filter = PersonFilter.compile(filters);
+        return timed("count", filter, null, () -> queryCount(filter));
+    }
+
+    private long queryCount(PersonFilter filter) {
+        if (queryTemplates != null) {
+            PersonQueryTemplates.Template template = queryTemplates.get(
+                    PersonQueryTemplates.Kind.COUNT, filter, List.of(), null);
+            return template.bind(entityManager.createQuery(template.getJpql(), Long.class), filter, null)
+                    .getSingleResult();
+        }
+
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Long> query = cb.createQuery(Long.class);
         Root<Person> root = query.from(Person.class);
 
-        query.select(cb.count(root));
+        // count(*), а не count(p.id): подсчету не нужны колонки, и он может идти index-only scan
+        query.select(((HibernateCriteriaBuilder) cb).count());
 
-        List<Predicate> predicates = buildPredicates(cb, root, filters);
+        List<Predicate> predicates = buildPredicates(cb, root, filter);
         if (!predicates.isEmpty()) {
             query.where(cb.and(predicates.toArray(new Predicate[0])));
         }
@@ -63,13 +189,72 @@ public class PersonRepositoryCustomImpl implements PersonRepositoryCustom {
         return entityManager.createQuery(query).getSingleResult();
     }
 
+    @Override
+    public void streamWithFilters(Map<String, Object> filters,
+                                  List<String> sortParams,
+                                  int fetchSize,
+                                  Consumer<Person> consumer) {
+        PersonFilter filter = PersonFilter.compile(filters);
+        timed("stream", filter, sortParams, () -> queryStream(filter, sortParams, fetchSize, consumer));
+    }
+
+    private void queryStream(PersonFilter filter,
+                             List<String> sortParams,
+                             int fetchSize,
+                             Consumer<Person> consumer) {
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            // PostgreSQL использует курсор с fetchSize только вне режима autocommit
+            Transaction transaction = session.beginTransaction();
+            try {
+                Query<Person> query;
+                if (queryTemplates != null) {
+                    PersonQueryTemplates.Template template = queryTemplates.get(
+                            PersonQueryTemplates.Kind.PAGE, filter, SortKey.parse(sortParams), null);
+                    query = template.bind(session.createQuery(template.getJpql(), Person.class), filter, null);
+                } else {
+                    query = session.createQuery(buildListQuery(session.getCriteriaBuilder(), filter, sortParams));
+                }
+
+                try (ScrollableResults<Person> results = query
+                        .setFetchSize(fetchSize)
+                        .setReadOnly(true)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (results.next()) {
+                        consumer.accept(results.get());
+                    }
+                }
+                transaction.commit();
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public long estimateTotalCount() {
+        return timed("estimate", null, null, this::queryEstimate);
+    }
+
+    private long queryEstimate() {
+        Number estimate = (Number) entityManager.createNativeQuery(
+                        "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('persons' AS regclass)")
+                .getSingleResult();
+        return estimate.longValue();
+    }
+
     @Override
     public long countByLocation(Float x, Integer y, String name) {
+        return timed("count_by_location", null, null, () -> queryCountByLocation(x, y, name));
+    }
+
+    private long queryCountByLocation(Float x, Integer y, String name) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Long> query = cb.createQuery(Long.class);
         Root<Person> root = query.from(Person.class);
 
-        query.select(cb.count(root));
+        query.select(((HibernateCriteriaBuilder) cb).count());
 
         List<Predicate> predicates = new ArrayList<>();
 
@@ -90,150 +275,366 @@ public class PersonRepositoryCustomImpl implements PersonRepositoryCustom {
         return entityManager.createQuery(query).getSingleResult();
     }
 
+    @Override
+    public List<Person> findInBox(SpatialField field, double minX, double minY, double maxX, double maxY,
+                                  int offset, int maxResults) {
+        return timed("box", null, null, () -> queryInBox(field, minX, minY, maxX, maxY, offset, maxResults));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Person> queryInBox(SpatialField field, double minX, double minY, double maxX, double maxY,
+                                    int offset, int maxResults) {
+        // Оценка селективности <@ box у планировщика постоянная (0.1%), и с ORDER BY id он идет по первичному
+        // ключу, отбрасывая почти всю таблицу; MATERIALIZED оставляет отбор по GiST. Материализуются и
+        // сортируются только id, строки страницы дочитываются по первичному ключу
+        return entityManager.createNativeQuery(
+                        "WITH in_box AS MATERIALIZED (SELECT id FROM persons WHERE " + boxCondition(field) + ") "
+                                + "SELECT p.* FROM persons p JOIN (SELECT id FROM in_box ORDER BY id "
+                                + "OFFSET :offset LIMIT :limit) page ON p.id = page.id ORDER BY p.id", Person.class)
+                .setParameter("minX", minX)
+                .setParameter("minY", minY)
+                .setParameter("maxX", maxX)
+                .setParameter("maxY", maxY)
+                .setParameter("offset", offset)
+                .setParameter("limit", maxResults)
+                .getResultList();
+    }
+
+    @Override
+    public long countInBox(SpatialField field, double minX, double minY, double maxX, double maxY) {
+        return timed("box_count", null, null, () -> queryCountInBox(field, minX, minY, maxX, maxY));
+    }
+
+    private long queryCountInBox(SpatialField field, double minX, double minY, double maxX, double maxY) {
+        Number count = (Number) entityManager.createNativeQuery(
+                        "SELECT COUNT(*) FROM persons WHERE " + boxCondition(field))
+                .setParameter("minX", minX)
+                .setParameter("minY", minY)
+                .setParameter("maxX", maxX)
+                .setParameter("maxY", maxY)
+                .getSingleResult();
+        return count.longValue();
+    }
+
+    @Override
+    public List<Person> findNearest(SpatialField field, double x, double y, Double radius, int limit) {
+        return timed("nearest", null, null, () -> queryNearest(field, x, y, radius, limit));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Person> queryNearest(SpatialField field, double x, double y, Double radius, int limit) {
+        String where = radius != null ? " WHERE " + circleCondition(field) : "";
+        String distance = field.getPointSql() + " <-> point(:x, :y)";
+        // С ", id" в ORDER BY индекс не используется (полный проход и top-N сортировка), поэтому
+        // k ближайших берутся чистым KNN по GiST, а равные расстояния упорядочиваются по id снаружи
+        jakarta.persistence.Query query = entityManager.createNativeQuery(
+                        "SELECT * FROM (SELECT * FROM persons" + where + " ORDER BY " + distance
+                                + " LIMIT :limit) nearest ORDER BY " + distance + ", id", Person.class)
+                .setParameter("x", x)
+                .setParameter("y", y)
+                .setParameter("limit", limit);
+        if (radius != null) {
+            query.setParameter("radius", radius);
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public long countWithinRadius(SpatialField field, double x, double y, double radius) {
+        return timed("radius_count", null, null, () -> queryCountWithinRadius(field, x, y, radius));
+    }
+
+    private long queryCountWithinRadius(SpatialField field, double x, double y, double radius) {
+        Number count = (Number) entityManager.createNativeQuery(
+                        "SELECT COUNT(*) FROM persons WHERE " + circleCondition(field))
+                .setParameter("x", x)
+                .setParameter("y", y)
+                .setParameter("radius", radius)
+                .getSingleResult();
+        return count.longValue();
+    }
+
+    /**
+     * Операторы над point(x, y) из GiST-индекса; box сам упорядочивает углы
+     */
+    private static String boxCondition(SpatialField field) {
+        return field.getPointSql() + " <@ box(point(:minX, :minY), point(:maxX, :maxY))";
+    }
+
+    private static String circleCondition(SpatialField field) {
+        return field.getPointSql() + " <@ circle(point(:x, :y), :radius)";
+    }
+
     @Override
     public double getPercentageByNationalityAndEyeColor(String nationality, String eyeColor) {
+        return timed("percentage", null, null, () -> queryPercentage(nationality, eyeColor));
+    }
+
+    private double queryPercentage(String nationality, String eyeColor) {
         Country countryEnum = Country.valueOf(nationality);
         EyeColor eyeColorEnum = EyeColor.valueOf(eyeColor);
 
-        Long totalByNationality = entityManager.createQuery(
-                        "SELECT COUNT(p) FROM Person p WHERE p.nationality = :nationality",
-                        Long.class)
+        Object[] counts = entityManager.createQuery(
+                        "SELECT COUNT(p), COUNT(CASE WHEN p.eyeColor = :eyeColor THEN 1 END) " +
+                                "FROM Person p WHERE p.nationality = :nationality",
+                        Object[].class)
                 .setParameter("nationality", countryEnum)
+                .setParameter("eyeColor", eyeColorEnum)
                 .getSingleResult();
 
+        long totalByNationality = (Long) counts[0];
         if (totalByNationality == 0) {
             return 0.0;
         }
 
-        Long countByNationalityAndEyeColor = entityManager.createQuery(
-                        "SELECT COUNT(p) FROM Person p WHERE p.nationality = :nationality AND p.eyeColor = :eyeColor",
-                        Long.class)
-                .setParameter("nationality", countryEnum)
-                .setParameter("eyeColor", eyeColorEnum)
-                .getSingleResult();
+        return (double) (Long) counts[1] / totalByNationality * 100.0;
+    }
 
-        return (double) countByNationalityAndEyeColor / totalByNationality * 100.0;
+    @Override
+    public Map<EyeColor, Double> getEyeColorDistributionByNationality(String nationality) {
+        return timed("eye_color_distribution", null, null, () -> queryEyeColorDistribution(nationality));
+    }
+
+    private Map<EyeColor, Double> queryEyeColorDistribution(String nationality) {
+        List<Object[]> rows = entityManager.createQuery(
+                        "SELECT p.eyeColor, COUNT(p) FROM Person p WHERE p.nationality = :nationality " +
+                                "GROUP BY p.eyeColor",
+                        Object[].class)
+                .setParameter("nationality", Country.valueOf(nationality))
+                .getResultList();
+
+        long totalByNationality = 0;
+        long[] counts = new long[EyeColor.values().length];
+        for (Object[] row : rows) {
+            long count = (Long) row[1];
+            totalByNationality += count;
+            if (row[0] != null) {
+                counts[((EyeColor) row[0]).ordinal()] = count;
+            }
+        }
+
+        Map<EyeColor, Double> distribution = new EnumMap<>(EyeColor.class);
+        for (EyeColor eyeColor : EyeColor.values()) {
+            distribution.put(eyeColor, totalByNationality == 0
+                    ? 0.0
+                    : (double) counts[eyeColor.ordinal()] / totalByNationality * 100.0);
+        }
+        return distribution;
+    }
+
+    private <T> T timed(String query, PersonFilter filter, List<String> sortParams, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(QUERY_TIMER)
+                    .tag("query", query)
+                    .tag("filters", filterTag(filter))
+                    .tag("sort", sortTag(sortParams))
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private void timed(String query, PersonFilter filter, List<String> sortParams, Runnable action) {
+        timed(query, filter, sortParams, () -> {
+            action.run();
+            return null;
+        });
     }
 
     /**
-     * Метод, помогающий построить фильтры
+     * Тег filters: отсортированные ключи непустых фильтров, значения в тег не попадают.
+     * Число сочетаний ограничивает RepositoryMetricsConfig
      */
-    private List<Predicate> buildPredicates(CriteriaBuilder cb, Root<Person> root, Map<String, Object> filters) {
-        List<Predicate> predicates = new ArrayList<>();
+    private String filterTag(PersonFilter filter) {
+        return filter == null || filter.isEmpty() ? NONE : filter.getSignature();
+    }
 
-        for (Map.Entry<String, Object> filter : filters.entrySet()) {
-            String key = filter.getKey();
-            Object value = filter.getValue();
-
-            if (value == null) continue;
-
-            switch (key) {
-                case "id":
-                    predicates.add(cb.equal(root.get("id"), value));
-                    break;
-                case "id[lt]":
-                    predicates.add(cb.lessThan(root.get("id"), (Integer) value));
-                    break;
-                case "id[gt]":
-                    predicates.add(cb.greaterThan(root.get("id"), (Integer) value));
-                    break;
-                case "name":
-                    predicates.add(cb.equal(root.get("name"), value));
-                    break;
-                case "height":
-                    predicates.add(cb.equal(root.get("height"), value));
-                    break;
-                case "height[lt]":
-                    predicates.add(cb.lessThan(root.get("height"), (Double) value));
-                    break;
-                case "height[gt]":
-                    predicates.add(cb.greaterThan(root.get("height"), (Double) value));
-                    break;
-                case "weight":
-                    predicates.add(cb.equal(root.get("weight"), value));
-                    break;
-                case "weight[lt]":
-                    predicates.add(cb.lessThan(root.get("weight"), (Long) value));
-                    break;
-                case "weight[gt]":
-                    predicates.add(cb.greaterThan(root.get("weight"), (Long) value));
-                    break;
-                case "nationality":
-                    predicates.add(cb.equal(root.get("nationality"),
-                            Country.valueOf((String) value)));
-                    break;
-                case "birthday":
-                    predicates.add(cb.equal(root.get("birthday"), value));
-                    break;
-                case "birthday[lt]":
-                    predicates.add(cb.lessThan(root.get("birthday"), (LocalDate) value));
-                    break;
-                case "birthday[gt]":
-                    predicates.add(cb.greaterThan(root.get("birthday"), (LocalDate) value));
-                    break;
-            }
+    /**
+     * Тег sort: первый ключ, а при нескольких ключах - первый ключ с суффиксом ;multi
+     */
+    private String sortTag(List<String> sortParams) {
+        List<SortKey> sortKeys = SortKey.parse(sortParams);
+        if (sortKeys.isEmpty()) {
+            return NONE;
         }
+        return sortKeys.size() == 1 ? sortKeys.get(0).toString() : sortKeys.get(0) + ";" + MULTI;
+    }
+
+    /**
+     * Criteria-запрос страницы списка, когда шаблоны выключены (persons.query-templates.enabled=false)
+     */
+    private CriteriaQuery<Person> buildListQuery(CriteriaBuilder cb, PersonFilter filter, List<String> sortParams) {
+        CriteriaQuery<Person> query = cb.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
 
-        return predicates;
+        List<Predicate> predicates = buildPredicates(cb, root, filter);
+        if (!predicates.isEmpty()) {
+            query.where(cb.and(predicates.toArray(new Predicate[0])));
+        }
+
+        List<Order> orders = buildOrders(cb, root, sortParams);
+        if (!orders.isEmpty()) {
+            query.orderBy(orders);
+        }
+        return query;
+    }
+
+    private CriteriaQuery<Person> buildKeysetQuery(PersonFilter filter,
+                                                   List<SortKey> sortKeys,
+                                                   List<Object> cursorValues) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Person> query = cb.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+
+        List<Predicate> predicates = buildPredicates(cb, root, filter);
+        if (cursorValues != null) {
+            predicates.add(buildSeekPredicate(cb, root, sortKeys, cursorValues));
+        }
+        if (!predicates.isEmpty()) {
+            query.where(cb.and(predicates.toArray(new Predicate[0])));
+        }
+
+        query.orderBy(CriteriaFilters.toOrders(cb, root, sortKeys));
+        return query;
+    }
+
+    /**
+     * Метод, помогающий построить фильтры
+     */
+    List<Predicate> buildPredicates(CriteriaBuilder cb, Root<Person> root, PersonFilter filter) {
+        return CriteriaFilters.toPredicates(cb, root, filter, PredicateCostModel.DEFAULT);
     }
 
     /**
      * Метод, помогающий назначить порядок сортировки
      */
-    private List<Order> buildOrders(CriteriaBuilder cb, Root<Person> root, List<String> sortParams) {
-        List<Order> orders = new ArrayList<>();
+    List<Order> buildOrders(CriteriaBuilder cb, Root<Person> root, List<String> sortParams) {
+        return CriteriaFilters.toOrders(cb, root, SortKey.parse(sortParams));
+    }
+
+    /**
+     * Ключи сортировки для keyset-пагинации: всегда заканчиваются на id, чтобы порядок был однозначным
+     */
+    private List<SortKey> buildKeysetSortKeys(List<String> sortParams) {
+        List<SortKey> sortKeys = SortKey.parse(sortParams);
+        boolean hasId = sortKeys.stream().anyMatch(sortKey -> sortKey.getField() == PersonField.ID);
+        if (!hasId) {
+            sortKeys.add(new SortKey(PersonField.ID, true));
+        }
+        return sortKeys;
+    }
+
+    private String sortSignature(List<SortKey> sortKeys) {
+        StringBuilder signature = new StringBuilder();
+        for (SortKey sortKey : sortKeys) {
+            if (signature.length() > 0) {
+                signature.append(';');
+            }
+            signature.append(sortKey);
+        }
+        return signature.toString();
+    }
 
-        if (sortParams == null || sortParams.isEmpty()) {
-            orders.add(cb.asc(root.get("id")));
-            return orders;
+    /**
+     * Условие "строка идет после курсора" для набора ключей (k1, k2, ..., id).
+     * Ключи NOT NULL в одном направлении сравниваются как строка (k1, k2, id) > (v1, v2, v3) - это диапазон
+     * составного индекса. Иначе k1 после v1 OR (k1 = v1 AND k2 после v2) OR ..., направление учитывается
+     * для каждого ключа отдельно, а для колонок, допускающих NULL, - что NULL в PostgreSQL идут последними при ASC.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate buildSeekPredicate(CriteriaBuilder cb, Root<Person> root,
+                                         List<SortKey> sortKeys, List<Object> values) {
+        if (SortKey.isRowComparable(sortKeys)) {
+            // Сравнения строк нет в JPA Criteria, поэтому кортежи собираются через SQM Hibernate;
+            // параметр курсора получает тип своей колонки, как при обычном сравнении
+            SqmCriteriaNodeBuilder nodeBuilder = (SqmCriteriaNodeBuilder) cb;
+            List<SqmExpression<?>> keys = new ArrayList<>();
+            List<SqmExpression<?>> cursor = new ArrayList<>();
+            for (int i = 0; i < sortKeys.size(); i++) {
+                SqmExpression<Object> expression =
+                        (SqmExpression<Object>) CriteriaFilters.path(root, sortKeys.get(i).getField());
+                keys.add(expression);
+                cursor.add(nodeBuilder.value(CriteriaFilters.toPathType(expression, values.get(i)), expression));
+            }
+            Expression<Comparable> row = (Expression) new SqmTuple<>(keys, nodeBuilder);
+            Expression<Comparable> cursorRow = (Expression) new SqmTuple<>(cursor, nodeBuilder);
+            return sortKeys.get(0).isAscending() ? cb.greaterThan(row, cursorRow) : cb.lessThan(row, cursorRow);
         }
 
-        for (String sortParam : sortParams) {
-            String[] parts = sortParam.split(",");
-            if (parts.length != 2) continue;
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalPrefix = new ArrayList<>();
 
-            String field = parts[0].trim();
-            boolean ascending = "asc".equalsIgnoreCase(parts[1].trim());
+        for (int i = 0; i < sortKeys.size(); i++) {
+            SortKey sortKey = sortKeys.get(i);
+            Expression<?> expression = CriteriaFilters.path(root, sortKey.getField());
+            Object value = CriteriaFilters.toPathType(expression, values.get(i));
 
-            Expression<?> expression = getExpression(root, field);
-            if (expression != null) {
-                orders.add(ascending ? cb.asc(expression) : cb.desc(expression));
+            Predicate after = after(cb, expression, value, sortKey);
+            if (after != null) {
+                List<Predicate> alternative = new ArrayList<>(equalPrefix);
+                alternative.add(after);
+                alternatives.add(cb.and(alternative.toArray(new Predicate[0])));
             }
+
+            equalPrefix.add(value == null ? cb.isNull(expression) : cb.equal(expression, value));
         }
 
-        if (orders.isEmpty()) {
-            orders.add(cb.asc(root.get("id")));
+        if (alternatives.isEmpty()) {
+            return cb.disjunction();
         }
+        return cb.or(alternatives.toArray(new Predicate[0]));
+    }
 
-        return orders;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate after(CriteriaBuilder cb, Expression<?> expression, Object value, SortKey sortKey) {
+        Expression<Comparable> comparable = (Expression<Comparable>) expression;
+        if (value == null) {
+            return sortKey.isAscending() ? null : cb.isNotNull(expression);
+        }
+        if (!sortKey.isAscending()) {
+            return cb.lessThan(comparable, (Comparable) value);
+        }
+        Predicate greater = cb.greaterThan(comparable, (Comparable) value);
+        return sortKey.getField().isNullable() ? cb.or(greater, cb.isNull(expression)) : greater;
     }
 
-    private Expression<?> getExpression(Root<Person> root, String field) {
+    private Object getSortValue(Person person, PersonField field) {
         switch (field) {
-            case "id":
-                return root.get("id");
-            case "name":
-                return root.get("name");
-            case "height":
-                return root.get("height");
-            case "weight":
-                return root.get("weight");
-            case "birthday":
-                return root.get("birthday");
-            case "nationality":
-                return root.get("nationality");
-            case "coordinates.x":
-                return root.get("coordinates").get("x");
-            case "coordinates.y":
-                return root.get("coordinates").get("y");
-            case "location.x":
-                return root.get("location").get("x");
-            case "location.y":
-                return root.get("location").get("y");
-            case "location.name":
-                return root.get("location").get("name");
+            case ID:
+                return person.getId();
+            case NAME:
+                return person.getName();
+            case HEIGHT:
+                return person.getHeight();
+            case WEIGHT:
+                return person.getWeight();
+            case BIRTHDAY:
+                return person.getBirthday();
+            case NATIONALITY:
+                return person.getNationality();
+            case HAIR_COLOR:
+                return person.getHairColor();
+            case EYE_COLOR:
+                return person.getEyeColor();
+            case COORDINATES_X:
+                return person.getCoordinates().getX();
+            case COORDINATES_Y:
+                return person.getCoordinates().getY();
+            case LOCATION_X:
+                return person.getLocation().getX();
+            case LOCATION_Y:
+                return person.getLocation().getY();
+            case LOCATION_NAME:
+                return person.getLocation().getName();
             default:
-                return null;
+                throw new IllegalArgumentException("Unsupported sort field: " + field.getPath());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package com.assistant.centralservicespring.service;
+
+import com.assistant.centralservicespring.model.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Читает CSV с заголовком из имен колонок таблицы persons (порядок произвольный),
+ * например: name,coord_x,coord_y,height,birthday,weight,nationality,location_x,location_y,location_name,hair_color,eye_color.
+ * Значения в кавычках поддерживаются, переводы строк внутри значений - нет.
+ */
+public class CsvPersonImportReader implements PersonImportReader {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(
+            "name", "coord_x", "coord_y", "height", "birthday", "nationality", "location_y", "location_name");
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private int line;
+
+    public CsvPersonImportReader(InputStream input) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header is missing");
+        }
+        line = 1;
+        List<String> names = split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IllegalArgumentException("CSV header has no column: " + column);
+            }
+        }
+    }
+
+    @Override
+    public PersonImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        try {
+            return PersonImportRow.of(line, toPerson(split(text)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return PersonImportRow.failed(line, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Person toPerson(List<String> values) {
+        Person person = new Person();
+        person.setName(value(values, "name"));
+        person.setCoordinates(new Coordinates(
+                Double.valueOf(required(values, "coord_x")),
+                Float.parseFloat(required(values, "coord_y"))));
+        person.setHeight(Double.parseDouble(required(values, "height")));
+        person.setBirthday(LocalDate.parse(required(values, "birthday")));
+
+        String weight = value(values, "weight");
+        person.setWeight(weight != null ? Long.valueOf(weight) : null);
+        person.setNationality(Country.valueOf(required(values, "nationality")));
+
+        String locationX = value(values, "location_x");
+        person.setLocation(new Location(
+                locationX != null ? Float.parseFloat(locationX) : 0f,
+                Integer.valueOf(required(values, "location_y")),
+                value(values, "location_name")));
+
+        String hairColor = value(values, "hair_color");
+        person.setHairColor(hairColor != null ? HairColor.valueOf(hairColor) : null);
+        String eyeColor = value(values, "eye_color");
+        person.setEyeColor(eyeColor != null ? EyeColor.valueOf(eyeColor) : null);
+        return person;
+    }
+
+    private String required(List<String> values, String column) {
+        String value = value(values, column);
+        if (value == null) {
+            throw new IllegalArgumentException("Column " + column + " is required");
+        }
+        return value;
+    }
+
+    private String value(List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<String> split(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -0,0 +1,130 @@
+package com.assistant.centralservicespring.service;
+
+import com.assistant.centralservicespring.model.Country;
+import com.assistant.centralservicespring.model.EyeColor;
+import com.assistant.centralservicespring.model.HairColor;
+import com.assistant.centralservicespring.model.Person;
+import com.assistant.centralservicespring.repository.PersonRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Агрегаты по демографии в памяти, индексированные по ordinal() перечислений:
+ * количество по цвету волос, по национальности и по паре (национальность, цвет глаз).
+ * Прогревается одним GROUP BY при старте, обновляется после коммита операций PersonService
+ * и периодически пересинхронизируется с базой, чтобы подхватить записи других узлов.
+ */
+@Slf4j
+@Component
+public class DemographyAggregateCache {
+
+    private static final int EYE_COLORS = EyeColor.values().length;
+
+    private final PersonRepository personRepository;
+
+    private volatile Counters counters;
+
+    public DemographyAggregateCache(PersonRepository personRepository) {
+        this.personRepository = personRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${demography.aggregates.resync-interval-ms:60000}")
+    public void rebuild() {
+        Counters rebuilt = new Counters();
+        List<Object[]> rows = personRepository.countGroupedByDemography();
+        for (Object[] row : rows) {
+            rebuilt.add((Country) row[0], (EyeColor) row[1], (HairColor) row[2], (Long) row[3]);
+        }
+        counters = rebuilt;
+        log.debug("Demography aggregates rebuilt from {} groups", rows.size());
+    }
+
+    public boolean isReady() {
+        return counters != null;
+    }
+
+    public long countByHairColor(HairColor hairColor) {
+        return counters.hairColor.get(hairColor.ordinal());
+    }
+
+    public double getPercentageByNationalityAndEyeColor(Country nationality, EyeColor eyeColor) {
+        Counters snapshot = counters;
+        long total = snapshot.nationality.get(nationality.ordinal());
+        if (total == 0) {
+            return 0.0;
+        }
+        long matching = snapshot.nationalityEyeColor.get(nationality.ordinal() * EYE_COLORS + eyeColor.ordinal());
+        return (double) matching / total * 100.0;
+    }
+
+    public Map<EyeColor, Double> getEyeColorDistributionByNationality(Country nationality) {
+        Counters snapshot = counters;
+        long total = snapshot.nationality.get(nationality.ordinal());
+        Map<EyeColor, Double> distribution = new EnumMap<>(EyeColor.class);
+        for (EyeColor eyeColor : EyeColor.values()) {
+            long matching = snapshot.nationalityEyeColor.get(nationality.ordinal() * EYE_COLORS + eyeColor.ordinal());
+            distribution.put(eyeColor, total == 0 ? 0.0 : (double) matching / total * 100.0);
+        }
+        return distribution;
+    }
+
+    public void onCreated(Person person) {
+        afterCommit(person.getNationality(), person.getEyeColor(), person.getHairColor(), 1);
+    }
+
+    public void onDeleted(Person person) {
+        afterCommit(person.getNationality(), person.getEyeColor(), person.getHairColor(), -1);
+    }
+
+    public void onUpdated(Country oldNationality, EyeColor oldEyeColor, HairColor oldHairColor, Person updated) {
+        afterCommit(oldNationality, oldEyeColor, oldHairColor, -1);
+        afterCommit(updated.getNationality(), updated.getEyeColor(), updated.getHairColor(), 1);
+    }
+
+    private void afterCommit(Country nationality, EyeColor eyeColor, HairColor hairColor, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(nationality, eyeColor, hairColor, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(nationality, eyeColor, hairColor, delta);
+            }
+        });
+    }
+
+    private void apply(Country nationality, EyeColor eyeColor, HairColor hairColor, long delta) {
+        Counters snapshot = counters;
+        if (snapshot != null) {
+            snapshot.add(nationality, eyeColor, hairColor, delta);
+        }
+    }
+
+    private static final class Counters {
+        private final AtomicLongArray hairColor = new AtomicLongArray(HairColor.values().length);
+        private final AtomicLongArray nationality = new AtomicLongArray(Country.values().length);
+        private final AtomicLongArray nationalityEyeColor =
+                new AtomicLongArray(Country.values().length * EYE_COLORS);
+
+        private void add(Country nationality, EyeColor eyeColor, HairColor hairColor, long delta) {
+            if (hairColor != null) {
+                this.hairColor.addAndGet(hairColor.ordinal(), delta);
+            }
+            if (nationality != null) {
+                this.nationality.addAndGet(nationality.ordinal(), delta);
+                if (eyeColor != null) {
+                    this.nationalityEyeColor.addAndGet(nationality.ordinal() * EYE_COLORS + eyeColor.ordinal(), delta);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.assistant.centralservicespring.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш количества записей по фильтрам для режима totalCountMode=estimated.
+ * Ключ - нормализованная (отсортированная по ключам) карта фильтров, запись живет ttl-ms.
+ */
+@Component
+public class FilteredCountCache {
+
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private final int maxEntries;
+
+    public FilteredCountCache(@Value("${persons.count-cache.ttl-ms:30000}") long ttlMs,
+                              @Value("${persons.count-cache.max-entries:1000}") int maxEntries) {
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    public long get(Map<String, Object> filters, LongSupplier exactCount) {
+        String key = new TreeMap<>(filters).toString();
+        long now = System.currentTimeMillis();
+
+        CachedCount cached = counts.get(key);
+        if (cached != null && now - cached.computedAt < ttlMs) {
+            return cached.count;
+        }
+
+        long count = exactCount.getAsLong();
+        if (counts.size() >= maxEntries) {
+            counts.values().removeIf(entry -> now - entry.computedAt >= ttlMs);
+            if (counts.size() >= maxEntries) {
+                counts.clear();
+            }
+        }
+        counts.put(key, new CachedCount(count, now));
+        return count;
+    }
+
+    private static final class CachedCount {
+        private final long count;
+        private final long computedAt;
+
+        private CachedCount(long count, long computedAt) {
+            this.count = count;
+            this.computedAt = computedAt;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.assistant.centralservicespring.service;
+
+import com.assistant.centralservicespring.model.Person;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Читает NDJSON: одна персона в формате JSON на строку, пустые строки пропускаются
+ */
+public class NdjsonPersonImportReader implements PersonImportReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader personReader;
+    private int line;
+
+    public NdjsonPersonImportReader(InputStream input, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.personReader = objectMapper.readerFor(Person.class);
+    }
+
+    @Override
+    public PersonImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        try {
+            return PersonImportRow.of(line, personReader.readValue(text));
+        } catch (JsonProcessingException e) {
+            return PersonImportRow.failed(line, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
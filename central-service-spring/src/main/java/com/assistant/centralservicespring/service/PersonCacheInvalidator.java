@@ -0,0 +1,179 @@
+package com.assistant.centralservicespring.service;
+
+import com.assistant.centralservicespring.model.Person;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Межузловая инвалидация кэша второго уровня через LISTEN/NOTIFY PostgreSQL.
+ * Изменения публикуются pg_notify в транзакции записи, поэтому доходят до других узлов только после коммита.
+ * Слушатель держит отдельное соединение мимо пула (DriverManager с настройками spring.datasource),
+ * чтобы не занимать навсегда соединение Hikari и разрешение SemaphoreDataSource,
+ * и сбрасывает у себя запись персоны и кэш страниц;
+ * после переподключения сбрасывает все регионы, так как уведомления могли быть пропущены.
+ */
+@Slf4j
+@Component
+public class PersonCacheInvalidator {
+
+    static final String CHANNEL = "persons_cache";
+    private static final String ALL_QUERIES = "*";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enabled;
+    private final int pollTimeoutMs;
+    private final long reconnectDelayMs;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public PersonCacheInvalidator(JdbcTemplate jdbcTemplate,
+                                  DataSourceProperties dataSourceProperties,
+                                  EntityManagerFactory entityManagerFactory,
+                                  @Value("${persons.cache.invalidation.enabled:false}") boolean enabled,
+                                  @Value("${persons.cache.invalidation.poll-timeout-ms:1000}") int pollTimeoutMs,
+                                  @Value("${persons.cache.invalidation.reconnect-delay-ms:5000}") long reconnectDelayMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    /**
+     * Персона изменена или удалена через JPA: локальный кэш Hibernate уже согласован,
+     * остальным узлам нужно сбросить запись и страницы
+     */
+    public void onChanged(Integer id) {
+        publish(String.valueOf(id));
+    }
+
+    /**
+     * Добавлены новые персоны: затронуты только страницы запросов
+     */
+    public void onCreated() {
+        publish(ALL_QUERIES);
+    }
+
+    /**
+     * Пакетная вставка через JDBC минует Hibernate, поэтому после коммита страницы сбрасываются и локально
+     */
+    public void onBulkInserted() {
+        publish(ALL_QUERIES);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictQueries();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictQueries();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "persons-cache-invalidation");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void publish(String key) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> { },
+                CHANNEL, nodeId + ":" + key);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                evictAll();
+                log.info("Listening for person cache invalidations on channel {}", CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Person cache invalidation listener failed, reconnecting in {} ms", reconnectDelayMs, e);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        int separator = payload.indexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        String key = payload.substring(separator + 1);
+        if (!ALL_QUERIES.equals(key)) {
+            entityManagerFactory.getCache().evict(Person.class, Integer.valueOf(key));
+        }
+        evictQueries();
+        log.debug("Person cache invalidated by another node: {}", key);
+    }
+
+    private void evictQueries() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    private void evictAll() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,126 @@
+package com.assistant.centralservicespring.service;
+
+import com.assistant.centralservicespring.model.Person;
+import com.assistant.centralservicespring.repository.PersonRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Потоковая выгрузка персон в NDJSON или CSV: каждая строка курсора сразу пишется в выходной поток.
+ * CSV использует те же имена колонок, что и импорт, поэтому выгрузку можно загрузить обратно.
+ */
+@Slf4j
+@Service
+public class PersonExportService {
+
+    private static final String CSV_HEADER = "id,name,coord_x,coord_y,creation_date,height,birthday,weight,"
+            + "nationality,location_x,location_y,location_name,hair_color,eye_color";
+
+    private final PersonRepository personRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public PersonExportService(PersonRepository personRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${persons.export.fetch-size:1000}") int fetchSize) {
+        this.personRepository = personRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public void export(Map<String, Object> filters,
+                       List<String> sortParams,
+                       PersonExportFormat format,
+                       OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long[] rows = {0};
+        try {
+            if (format == PersonExportFormat.NDJSON) {
+                SequenceWriter sequence = objectMapper.writerFor(Person.class)
+                        .withRootValueSeparator("\n")
+                        .writeValues(writer);
+                personRepository.streamWithFilters(filters, sortParams, fetchSize, person -> {
+                    try {
+                        sequence.write(person);
+                        rows[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                sequence.flush();
+                if (rows[0] > 0) {
+                    writer.write('\n');
+                }
+            } else {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                personRepository.streamWithFilters(filters, sortParams, fetchSize, person -> {
+                    try {
+                        writeCsvRow(writer, person);
+                        rows[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Exported {} persons as {}", rows[0], format);
+    }
+
+    /**
+     * Обход персон тем же курсором, что и выгрузка: каждая строка сразу отдается consumer и не удерживается
+     */
+    public void stream(Map<String, Object> filters, List<String> sortParams, Consumer<Person> consumer) {
+        personRepository.streamWithFilters(filters, sortParams, fetchSize, consumer);
+    }
+
+    private void writeCsvRow(Writer writer, Person person) throws IOException {
+        writer.write(String.valueOf(person.getId()));
+        writeCsvValue(writer, person.getName());
+        writeCsvValue(writer, person.getCoordinates().getX());
+        writeCsvValue(writer, person.getCoordinates().getY());
+        writeCsvValue(writer, person.getCreationDate() != null ? person.getCreationDate().toInstant() : null);
+        writeCsvValue(writer, person.getHeight());
+        writeCsvValue(writer, person.getBirthday());
+        writeCsvValue(writer, person.getWeight());
+        writeCsvValue(writer, person.getNationality());
+        writeCsvValue(writer, person.getLocation().getX());
+        writeCsvValue(writer, person.getLocation().getY());
+        writeCsvValue(writer, person.getLocation().getName());
+        writeCsvValue(writer, person.getHairColor());
+        writeCsvValue(writer, person.getEyeColor());
+        writer.write('\n');
+    }
+
+    private void writeCsvValue(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
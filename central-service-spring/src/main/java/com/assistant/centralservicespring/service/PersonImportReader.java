@@ -0,0 +1,19 @@
+package com.assistant.centralservicespring.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Источник записей для импорта, читаемый по одной записи
+ */
+public interface PersonImportReader extends Closeable {
+
+    /**
+     * Следующая запись или null, если вход закончился
+     */
+    PersonImportRow next() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,29 @@
+package com.assistant.centralservicespring.service;
+
+import com.assistant.centralservicespring.model.Person;
+import lombok.Getter;
+
+/**
+ * Одна запись входного потока импорта: номер строки и либо разобранная персона, либо ошибка разбора
+ */
+@Getter
+public class PersonImportRow {
+
+    private final int row;
+    private final Person person;
+    private final String error;
+
+    private PersonImportRow(int row, Person person, String error) {
+        this.row = row;
+        this.person = person;
+        this.error = error;
+    }
+
+    public static PersonImportRow of(int row, Person person) {
+        return new PersonImportRow(row, person, null);
+    }
+
+    public static PersonImportRow failed(int row, String error) {
+        return new PersonImportRow(row, null, error);
+    }
+}
@@ -0,0 +1,137 @@
+package com.assistant.centralservicespring.service;
+
+import com.assistant.centralservicespring.dto.BulkImportResult;
+import com.assistant.centralservicespring.model.Person;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт персон. Записи читаются потоком, каждая проверяется валидатором,
+ * корректные пишутся пачками через JDBC batch insert, каждая пачка в своей транзакции.
+ * В памяти держится только текущая пачка и ограниченный список ошибок.
+ */
+@Slf4j
+@Service
+public class PersonImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO persons (name, coord_x, coord_y, creation_date, height, "
+            + "birthday, weight, nationality, location_x, location_y, location_name, hair_color, eye_color) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final DemographyAggregateCache aggregateCache;
+    private final PersonCacheInvalidator cacheInvalidator;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public PersonImportService(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               Validator validator,
+                               DemographyAggregateCache aggregateCache,
+                               PersonCacheInvalidator cacheInvalidator,
+                               @Value("${persons.import.batch-size:500}") int batchSize,
+                               @Value("${persons.import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.aggregateCache = aggregateCache;
+        this.cacheInvalidator = cacheInvalidator;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public BulkImportResult importPersons(PersonImportReader reader) throws IOException {
+        BulkImportResult result = new BulkImportResult();
+        List<PersonImportRow> batch = new ArrayList<>(batchSize);
+
+        PersonImportRow row;
+        while ((row = reader.next()) != null) {
+            String error = row.getError() != null ? row.getError() : validate(row.getPerson());
+            if (error != null) {
+                addError(result, row.getRow(), error);
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                flush(batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, result);
+        }
+
+        log.info("Bulk import finished: {} imported, {} failed", result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void flush(List<PersonImportRow> batch, BulkImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), this::bind);
+                batch.forEach(row -> aggregateCache.onCreated(row.getPerson()));
+                cacheInvalidator.onBulkInserted();
+            });
+            result.setImported(result.getImported() + batch.size());
+        } catch (DataAccessException e) {
+            log.warn("Bulk import batch of {} rows failed: {}", batch.size(), e.getMessage());
+            String message = "Batch rejected by database: " + e.getMostSpecificCause().getMessage();
+            batch.forEach(row -> addError(result, row.getRow(), message));
+        }
+    }
+
+    private void bind(PreparedStatement ps, PersonImportRow row) throws SQLException {
+        Person person = row.getPerson();
+        ps.setString(1, person.getName());
+        ps.setDouble(2, person.getCoordinates().getX());
+        ps.setFloat(3, person.getCoordinates().getY());
+        ps.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+        ps.setDouble(5, person.getHeight());
+        ps.setObject(6, person.getBirthday());
+        ps.setObject(7, person.getWeight(), Types.BIGINT);
+        ps.setString(8, person.getNationality().name());
+        ps.setFloat(9, person.getLocation().getX());
+        ps.setInt(10, person.getLocation().getY());
+        ps.setString(11, person.getLocation().getName());
+        ps.setString(12, person.getHairColor() != null ? person.getHairColor().name() : null);
+        ps.setString(13, person.getEyeColor() != null ? person.getEyeColor().name() : null);
+    }
+
+    private String validate(Person person) {
+        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void addError(BulkImportResult result, int row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new BulkImportResult.RowError(row, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+}
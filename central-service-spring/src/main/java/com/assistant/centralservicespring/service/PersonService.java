@@ -1,5 +1,6 @@
 package com.assistant.centralservicespring.service;
 
+import com.assistant.centralservicespring.dto.PersonPage;
 import com.assistant.centralservicespring.model.*;
 import com.assistant.centralservicespring.repository.PersonRepository;
 import org.springframework.stereotype.Service;
@@ -12,15 +13,30 @@ import java.util.*;
 @Transactional
 public class PersonService {
 
+    /** Порядок выдачи по росту: по нему же строится continuationToken и идет потоковый ответ */
+    public static final List<String> HEIGHT_ORDER = List.of("height,asc");
+
     private final PersonRepository personRepository;
+    private final DemographyAggregateCache aggregateCache;
+    private final FilteredCountCache filteredCountCache;
+    private final PersonCacheInvalidator cacheInvalidator;
 
-    public PersonService(PersonRepository personRepository) {
+    public PersonService(PersonRepository personRepository,
+                         DemographyAggregateCache aggregateCache,
+                         FilteredCountCache filteredCountCache,
+                         PersonCacheInvalidator cacheInvalidator) {
         this.personRepository = personRepository;
+        this.aggregateCache = aggregateCache;
+        this.filteredCountCache = filteredCountCache;
+        this.cacheInvalidator = cacheInvalidator;
     }
 
     public Person create(Person person) {
         person.setCreationDate(new Date());
-        return personRepository.save(person);
+        Person saved = personRepository.save(person);
+        aggregateCache.onCreated(saved);
+        cacheInvalidator.onCreated();
+        return saved;
     }
 
     public Optional<Person> findById(Integer id) {
@@ -33,6 +49,10 @@ public class PersonService {
             return null;
         }
         Person person = optionalPerson.get();
+        Country oldNationality = person.getNationality();
+        EyeColor oldEyeColor = person.getEyeColor();
+        HairColor oldHairColor = person.getHairColor();
+
         person.setName(updatedPerson.getName());
         person.setCoordinates(updatedPerson.getCoordinates());
         person.setHeight(updatedPerson.getHeight());
@@ -42,12 +62,18 @@ public class PersonService {
         person.setLocation(updatedPerson.getLocation());
         person.setHairColor(updatedPerson.getHairColor());
         person.setEyeColor(updatedPerson.getEyeColor());
-        return personRepository.save(person);
+        Person saved = personRepository.save(person);
+        aggregateCache.onUpdated(oldNationality, oldEyeColor, oldHairColor, saved);
+        cacheInvalidator.onChanged(id);
+        return saved;
     }
 
     public boolean delete(Integer id) {
-        if (personRepository.existsById(id)) {
-            personRepository.deleteById(id);
+        Optional<Person> person = personRepository.findById(id);
+        if (person.isPresent()) {
+            personRepository.delete(person.get());
+            aggregateCache.onDeleted(person.get());
+            cacheInvalidator.onChanged(id);
             return true;
         }
         return false;
@@ -64,10 +90,89 @@ public class PersonService {
         return personRepository.findWithFiltersAndSort(filters, sortParams, page, size);
     }
 
+    public List<Person> findFiltered(Map<String, Object> filters,
+                                     List<String> sortParams,
+                                     int page,
+                                     int size,
+                                     int maxResults) {
+        return personRepository.findWithFiltersAndSort(filters, sortParams, page, size, maxResults);
+    }
+
+    public List<Person> findFilteredAfter(Map<String, Object> filters,
+                                          List<String> sortParams,
+                                          String cursor,
+                                          int size) {
+        return personRepository.findWithFiltersAndSortAfter(filters, sortParams, cursor, size);
+    }
+
+    /**
+     * Страница списка: смещение page/size или keyset-курсор, если он передан.
+     * Строка сверх size запрашивается только чтобы узнать hasNext; курсор следующей страницы
+     * выдается лишь в режиме курсора. size должен быть положительным, page - неотрицательным.
+     */
+    public PersonPage findPage(Map<String, Object> filters,
+                               List<String> sortParams,
+                               int page,
+                               int size,
+                               String cursor,
+                               PersonPage.CountMode countMode) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative: " + page);
+        }
+        List<Person> persons = cursor != null
+                ? findFilteredAfter(filters, sortParams, cursor, size + 1)
+                : findFiltered(filters, sortParams, page, size, size + 1);
+
+        boolean hasNext = persons.size() > size;
+        if (hasNext) {
+            persons = persons.subList(0, size);
+        }
+
+        PersonPage result = new PersonPage();
+        result.setPersons(persons);
+        result.setHasNext(hasNext);
+        if (cursor != null && hasNext) {
+            result.setNextCursor(buildCursor(sortParams, persons.get(persons.size() - 1)));
+        }
+        switch (countMode) {
+            case EXACT:
+                result.setTotalCount(countFiltered(filters));
+                break;
+            case ESTIMATED:
+                result.setTotalCount(estimateCountFiltered(filters));
+                break;
+            case NONE:
+                break;
+        }
+        result.setTotalCountMode(countMode);
+        return result;
+    }
+
+    public String buildCursor(List<String> sortParams, Person last) {
+        return personRepository.buildCursor(sortParams, last);
+    }
+
     public long countFiltered(Map<String, Object> filters) {
         return personRepository.countWithFilters(filters);
     }
 
+    /**
+     * Приблизительное количество: без фильтров - статистика планировщика PostgreSQL,
+     * с фильтрами - точный подсчет, закэшированный по нормализованной карте фильтров
+     */
+    public long estimateCountFiltered(Map<String, Object> filters) {
+        if (filters.isEmpty()) {
+            long estimate = personRepository.estimateTotalCount();
+            if (estimate >= 0) {
+                return estimate;
+            }
+        }
+        return filteredCountCache.get(filters, () -> personRepository.countWithFilters(filters));
+    }
+
     public Double getAverageWeight() {
         Double average = personRepository.getAverageWeight();
         return average != null ? average : 0.0;
@@ -81,6 +186,111 @@ public class PersonService {
         return personRepository.findByHeightGreaterThan(minHeight);
     }
 
+    /**
+     * Страница персон выше minHeight в порядке (height, id); без токена - первая страница
+     */
+    public PersonPage findByHeightGreaterThan(double minHeight, int limit, String continuationToken) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        return findPage(heightGreaterThanFilter(minHeight), HEIGHT_ORDER, 0, limit,
+                continuationToken != null ? continuationToken : "", PersonPage.CountMode.NONE);
+    }
+
+    /**
+     * Страница персон в прямоугольнике по id; totalCount - по countMode, как у findPage,
+     * estimated - точный подсчет из кэша по прямоугольнику. size = 0 - только количество
+     */
+    public PersonPage findInBox(String fieldName, double minX, double minY, double maxX, double maxY,
+                                int page, int size, PersonPage.CountMode countMode) {
+        SpatialField field = parseSpatialField(fieldName);
+        if (minX > maxX || minY > maxY) {
+            throw new IllegalArgumentException("min must not exceed max: ("
+                    + minX + ", " + minY + ") - (" + maxX + ", " + maxY + ")");
+        }
+        if (page < 0 || size < 0) {
+            throw new IllegalArgumentException("page and size must not be negative: " + page + ", " + size);
+        }
+        if (size == 0 && countMode == PersonPage.CountMode.NONE) {
+            throw new IllegalArgumentException("totalCountMode is required when size is 0");
+        }
+
+        int offset;
+        int maxResults;
+        try {
+            offset = Math.multiplyExact(page, size);
+            maxResults = Math.addExact(size, 1);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("page and size are too large: " + page + ", " + size, e);
+        }
+
+        PersonPage result = new PersonPage();
+        if (size > 0) {
+            List<Person> persons = personRepository.findInBox(field, minX, minY, maxX, maxY,
+                    offset, maxResults);
+            boolean hasNext = persons.size() > size;
+            result.setPersons(hasNext ? persons.subList(0, size) : persons);
+            result.setHasNext(hasNext);
+        }
+        switch (countMode) {
+            case EXACT:
+                result.setTotalCount(personRepository.countInBox(field, minX, minY, maxX, maxY));
+                break;
+            case ESTIMATED:
+                Map<String, Object> box = Map.of("inBox", List.of(field, minX, minY, maxX, maxY));
+                result.setTotalCount(filteredCountCache.get(box,
+                        () -> personRepository.countInBox(field, minX, minY, maxX, maxY)));
+                break;
+            case NONE:
+                break;
+        }
+        result.setTotalCountMode(countMode);
+        return result;
+    }
+
+    /**
+     * limit ближайших к (x, y); с radius - только в круге и с количеством в нем, limit = 0 - только количество
+     */
+    public PersonPage findNearest(String fieldName, double x, double y, Double radius, int limit) {
+        SpatialField field = parseSpatialField(fieldName);
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative: " + limit);
+        }
+        if (radius != null && radius < 0) {
+            throw new IllegalArgumentException("radius must not be negative: " + radius);
+        }
+        if (limit == 0 && radius == null) {
+            throw new IllegalArgumentException("radius is required when limit is 0");
+        }
+
+        PersonPage result = new PersonPage();
+        if (limit > 0) {
+            result.setPersons(personRepository.findNearest(field, x, y, radius, limit));
+        }
+        if (radius != null) {
+            result.setTotalCount(personRepository.countWithinRadius(field, x, y, radius));
+            result.setTotalCountMode(PersonPage.CountMode.EXACT);
+            result.setHasNext(result.getTotalCount() > result.getPersons().size());
+        } else {
+            result.setTotalCountMode(PersonPage.CountMode.NONE);
+        }
+        return result;
+    }
+
+    private static SpatialField parseSpatialField(String fieldName) {
+        try {
+            return SpatialField.valueOf(fieldName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown spatial field: " + fieldName, e);
+        }
+    }
+
+    public static Map<String, Object> heightGreaterThanFilter(double minHeight) {
+        Map<String, Object> filters = new HashMap<>();
+        filters.put("height[gt]", minHeight);
+        return filters;
+    }
+
     public long getTotalCount() {
         return personRepository.count();
     }
@@ -88,6 +298,9 @@ public class PersonService {
     public long countByHairColor(String hairColorString) {
         try {
             HairColor hairColor = HairColor.valueOf(hairColorString.toUpperCase());
+            if (aggregateCache.isReady()) {
+                return aggregateCache.countByHairColor(hairColor);
+            }
             return personRepository.countByHairColor(hairColor);
         } catch (IllegalArgumentException e) {
             return 0;
@@ -95,12 +308,27 @@ public class PersonService {
     }
 
     public double getPercentageByNationalityAndEyeColor(String nationalityString, String eyeColorString) {
+        if (aggregateCache.isReady()) {
+            return aggregateCache.getPercentageByNationalityAndEyeColor(
+                    Country.valueOf(nationalityString.toUpperCase()),
+                    EyeColor.valueOf(eyeColorString.toUpperCase())
+            );
+        }
         return personRepository.getPercentageByNationalityAndEyeColor(
                 nationalityString.toUpperCase(),
                 eyeColorString.toUpperCase()
         );
     }
 
+    public Map<EyeColor, Double> getEyeColorDistributionByNationality(String nationalityString) {
+        if (aggregateCache.isReady()) {
+            return aggregateCache.getEyeColorDistributionByNationality(
+                    Country.valueOf(nationalityString.toUpperCase())
+            );
+        }
+        return personRepository.getEyeColorDistributionByNationality(nationalityString.toUpperCase());
+    }
+
 
     public Map<String, Object> createFilters(Integer id, Integer idLt, Integer idGt,
                                               String name, Double height, Double heightLt, Double heightGt,
@@ -126,4 +354,45 @@ public class PersonService {
 
         return filters;
     }
+
+    /**
+     * Фильтры по набору значений и диапазоны включительно к уже созданным createFilters:
+     * пустой список не фильтрует, обе границы сразу дают одно условие BETWEEN
+     */
+    public Map<String, Object> addSetAndRangeFilters(Map<String, Object> filters,
+                                                     List<String> nationalityIn, List<String> hairColorIn,
+                                                     List<String> eyeColorIn,
+                                                     Integer idGte, Integer idLte,
+                                                     Double heightGte, Double heightLte,
+                                                     Long weightGte, Long weightLte,
+                                                     String birthdayGte, String birthdayLte) {
+        putIn(filters, "nationality", nationalityIn);
+        putIn(filters, "hairColor", hairColorIn);
+        putIn(filters, "eyeColor", eyeColorIn);
+
+        putRange(filters, "id", idGte, idLte);
+        putRange(filters, "height", heightGte, heightLte);
+        putRange(filters, "weight", weightGte, weightLte);
+        putRange(filters, "birthday",
+                birthdayGte != null ? LocalDate.parse(birthdayGte) : null,
+                birthdayLte != null ? LocalDate.parse(birthdayLte) : null);
+
+        return filters;
+    }
+
+    private static void putIn(Map<String, Object> filters, String field, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            filters.put(field + "[in]", values);
+        }
+    }
+
+    private static void putRange(Map<String, Object> filters, String field, Object gte, Object lte) {
+        if (gte != null && lte != null) {
+            filters.put(field + "[between]", List.of(gte, lte));
+        } else if (gte != null) {
+            filters.put(field + "[gte]", gte);
+        } else if (lte != null) {
+            filters.put(field + "[lte]", lte);
+        }
+    }
 }
\ No newline at end of file
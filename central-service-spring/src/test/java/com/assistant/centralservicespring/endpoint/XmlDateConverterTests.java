@@ -0,0 +1,47 @@
+package com.assistant.centralservicespring.endpoint;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * XmlDateConverter должен давать тот же XML, что и прежнее преобразование через строку и GregorianCalendar
+ */
+class XmlDateConverterTests {
+
+    @Test
+    void localDateMatchesStringParsing() throws Exception {
+        for (LocalDate date : new LocalDate[]{LocalDate.of(1990, 5, 15), LocalDate.of(2000, 2, 29),
+                LocalDate.of(1, 1, 1), LocalDate.of(9999, 12, 31)}) {
+            XMLGregorianCalendar expected = DatatypeFactory.newInstance().newXMLGregorianCalendar(date.toString());
+            assertEquals(expected.toXMLFormat(), XmlDateConverter.toXml(date).toXMLFormat());
+            assertEquals(date, XmlDateConverter.toLocalDate(XmlDateConverter.toXml(date)));
+        }
+    }
+
+    @Test
+    void dateMatchesGregorianCalendar() throws Exception {
+        for (Date date : new Date[]{new Date(0), new Date(1_700_000_000_123L), new Date(1_720_000_000_000L),
+                Timestamp.valueOf("2026-03-29 02:30:00.084902")}) {
+            GregorianCalendar calendar = new GregorianCalendar();
+            calendar.setTime(date);
+            XMLGregorianCalendar expected = DatatypeFactory.newInstance().newXMLGregorianCalendar(calendar);
+            assertEquals(expected.toXMLFormat(), XmlDateConverter.toXml(date).toXMLFormat());
+        }
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertNull(XmlDateConverter.toXml((LocalDate) null));
+        assertNull(XmlDateConverter.toXml((Date) null));
+        assertNull(XmlDateConverter.toLocalDate(null));
+    }
+}
@@ -0,0 +1,32 @@
+package com.assistant.centralservicespring.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Наполнение отдельной базы для benchmark-тестов синтетическими персонами
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Дописывает строки в persons, пока их не станет не меньше rows, и обновляет статистику
+     */
+    static void seed(JdbcTemplate jdbcTemplate, long rows) {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM persons", Long.class);
+        if (existing >= rows) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO persons (name, coord_x, coord_y, creation_date, height, birthday, weight, " +
+                "nationality, location_x, location_y, location_name, hair_color, eye_color) " +
+                "SELECT 'Person ' || g, g % 1000, g % 500, now(), 150 + (g * 7 % 700) / 10.0, " +
+                "DATE '1950-01-01' + g % 20000, 40 + g % 120, " +
+                "(ARRAY['RUSSIA','CHINA','INDIA','ITALY','SOUTH_KOREA'])[1 + g % 5], " +
+                "g % 180, g % 90, 'City ' || g % 1000, " +
+                "(ARRAY['BLONDE','BRUNETTE','BROWN','RED','BLACK','GRAY','WHITE'])[1 + g % 7], " +
+                "(ARRAY['BROWN','BLUE','GREEN','GRAY','BLACK','AMBER','HAZEL'])[1 + g / 5 % 7] " +
+                "FROM generate_series(1, CAST(? AS int)) g", rows - existing);
+        jdbcTemplate.execute("VACUUM ANALYZE persons");
+    }
+}
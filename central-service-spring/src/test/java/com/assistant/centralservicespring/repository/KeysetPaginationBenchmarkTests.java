@@ -0,0 +1,96 @@
+package com.assistant.centralservicespring.repository;
+
+import com.assistant.centralservicespring.model.Person;
+import com.assistant.centralservicespring.service.PersonService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнение OFFSET- и keyset-пагинации на страницах 1..10 000 (по 20 строк).
+ * Запускается только явно и наполняет таблицу persons, поэтому нужна отдельная база:
+ * mvn test -Dtest=KeysetPaginationBenchmarkTests -Dbenchmark=true
+ *     -Dspring.datasource.url=jdbc:postgresql://localhost:5432/benchmark
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class KeysetPaginationBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(KeysetPaginationBenchmarkTests.class);
+
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEPEST_PAGE = 10_000;
+    private static final int RUNS = 15;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        BenchmarkData.seed(jdbcTemplate, (long) PAGE_SIZE * (DEEPEST_PAGE + 1));
+    }
+
+    @Test
+    void keysetLatencyStaysFlatWithPageDepth() {
+        Map<String, Object> filters = Collections.emptyMap();
+        List<String> sort = Collections.emptyList();
+
+        long keysetFirst = 0;
+        long keysetDeepest = 0;
+
+        log.info(String.format("%8s %14s %14s", "page", "offset, us", "keyset, us"));
+        for (int page : new int[]{1, 10, 100, 1_000, DEEPEST_PAGE}) {
+            int pageIndex = page - 1;
+            String cursor = "";
+            if (pageIndex > 0) {
+                List<Person> previous = personService.findFiltered(filters, sort, pageIndex - 1, PAGE_SIZE);
+                cursor = personService.buildCursor(sort, previous.get(previous.size() - 1));
+            }
+            String pageCursor = cursor;
+
+            List<Person> byOffset = personService.findFiltered(filters, sort, pageIndex, PAGE_SIZE);
+            List<Person> byKeyset = personService.findFilteredAfter(filters, sort, pageCursor, PAGE_SIZE);
+            assertEquals(byOffset.stream().map(Person::getId).toList(), byKeyset.stream().map(Person::getId).toList());
+
+            long offsetMicros = medianMicros(() -> personService.findFiltered(filters, sort, pageIndex, PAGE_SIZE));
+            long keysetMicros = medianMicros(() -> personService.findFilteredAfter(filters, sort, pageCursor, PAGE_SIZE));
+            log.info(String.format("%8d %14d %14d", page, offsetMicros, keysetMicros));
+
+            if (page == 1) {
+                keysetFirst = keysetMicros;
+            }
+            keysetDeepest = keysetMicros;
+        }
+
+        assertTrue(keysetDeepest <= keysetFirst * 3 + 2_000,
+                "Keyset page " + DEEPEST_PAGE + " took " + keysetDeepest + "us, page 1 took " + keysetFirst + "us");
+    }
+
+    private long medianMicros(Supplier<List<Person>> query) {
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.get();
+            samples[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+}
@@ -0,0 +1,253 @@
+package com.assistant.centralservicespring.repository;
+
+import com.assistant.centralservicespring.model.Person;
+import com.assistant.centralservicespring.model.SpatialField;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет, что запросы PersonRepositoryCustomImpl не приводят к Seq Scan на миллионе строк.
+ * Планы строятся не по SQL, написанному в тесте, а по тому, что репозиторий реально отправил в базу:
+ * dataSource обернут datasource-proxy, и каждый записанный запрос повторяется под EXPLAIN с теми же
+ * вызовами setXxx, что сделал Hibernate. Покрыты Criteria и JPQL-шаблоны (страница и подсчет по каждому
+ * фильтру), keyset-страницы, оценка количества и пространственные запросы (они обязаны идти по GiST V4).
+ * Запускается только явно и наполняет таблицу persons, поэтому нужна отдельная база:
+ * mvn test -Dtest=QueryPlanRegressionTests -Dbenchmark=true
+ *     -Dspring.datasource.url=jdbc:postgresql://localhost:5432/benchmark
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class QueryPlanRegressionTests {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanRegressionTests.class);
+
+    private static final long ROWS = 1_000_000;
+    private static final StatementRecorder RECORDER = new StatementRecorder();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        BenchmarkData.seed(jdbcTemplate, ROWS);
+    }
+
+    @Test
+    void supportedFiltersDoNotFallBackToSequentialScan() {
+        int maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM persons", Integer.class);
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("id", 500000);
+        filters.put("id[lt]", 1000);
+        filters.put("id[gt]", maxId - 1000);
+        filters.put("name", "Person 123456");
+        filters.put("height", 160.0);
+        filters.put("height[lt]", 150.5);
+        filters.put("height[gt]", 219.5);
+        filters.put("weight", 100L);
+        filters.put("weight[lt]", 41L);
+        filters.put("weight[gt]", 158L);
+        filters.put("nationality", "ITALY");
+        filters.put("birthday", "1960-01-01");
+        filters.put("birthday[lt]", "1950-02-01");
+        filters.put("birthday[gt]", "2004-06-01");
+        filters.put("nationality[in]", List.of("ITALY", "SOUTH_KOREA"));
+        filters.put("hairColor[in]", List.of("RED", "WHITE"));
+        filters.put("eyeColor[in]", List.of("AMBER", "HAZEL"));
+        filters.put("id[between]", List.of(1000, 2000));
+        filters.put("height[between]", List.of(219.0, 219.5));
+        filters.put("weight[gte]", 159L);
+        filters.put("birthday[lte]", "1950-01-15");
+
+        List<String> failures = new ArrayList<>();
+        for (boolean templates : new boolean[]{false, true}) {
+            PersonRepositoryCustomImpl repository = repository(templates);
+            String path = templates ? "templates " : "criteria ";
+            for (Map.Entry<String, Object> filter : filters.entrySet()) {
+                Map<String, Object> single = Map.of(filter.getKey(), filter.getValue());
+                check(failures, path + filter.getKey() + " page", false,
+                        () -> repository.findWithFiltersAndSort(single, List.of(), 0, 20, 21));
+                check(failures, path + filter.getKey() + " count", false,
+                        () -> repository.countWithFilters(single));
+            }
+        }
+
+        assertTrue(failures.isEmpty(), "Sequential scans:\n" + String.join("\n", failures));
+    }
+
+    /**
+     * Следующая страница по курсору: (id) > (:c) и строкой (height, id) > (:c0, :c1) по idx_persons_height_id
+     */
+    @Test
+    void keysetPagesSeekByIndex() {
+        List<String> failures = new ArrayList<>();
+        for (boolean templates : new boolean[]{false, true}) {
+            PersonRepositoryCustomImpl repository = repository(templates);
+            for (List<String> sort : List.of(List.<String>of(), List.of("height,asc"))) {
+                List<Person> first = repository.findWithFiltersAndSort(Map.of(), sort, 0, 20);
+                String cursor = repository.buildCursor(sort, first.get(first.size() - 1));
+                check(failures, (templates ? "templates" : "criteria") + " keyset " + sort, false,
+                        () -> repository.findWithFiltersAndSortAfter(Map.of(), sort, cursor, 21));
+            }
+        }
+
+        assertTrue(failures.isEmpty(), "Sequential scans:\n" + String.join("\n", failures));
+    }
+
+    @Test
+    void estimatedCountReadsPlannerStatistics() {
+        PersonRepositoryCustomImpl repository = repository(true);
+        List<String> failures = new ArrayList<>();
+        check(failures, "estimate", false, repository::estimateTotalCount);
+
+        assertTrue(failures.isEmpty(), "Sequential scans:\n" + String.join("\n", failures));
+    }
+
+    /**
+     * Поиск по области должен идти по GiST-индексу V4, а не по первичному ключу или полным проходом
+     */
+    @Test
+    void spatialQueriesUseGistIndex() {
+        PersonRepositoryCustomImpl repository = repository(true);
+        List<String> failures = new ArrayList<>();
+        check(failures, "box page", true,
+                () -> repository.findInBox(SpatialField.COORDINATES, 10, 10, 11, 11, 20, 21));
+        check(failures, "box count", true,
+                () -> repository.countInBox(SpatialField.COORDINATES, 10, 10, 11, 11));
+        check(failures, "nearest", true,
+                () -> repository.findNearest(SpatialField.COORDINATES, 10, 10, null, 10));
+        check(failures, "nearest in radius", true,
+                () -> repository.findNearest(SpatialField.LOCATION, 10, 10, 0.5, 10));
+        check(failures, "radius count", true,
+                () -> repository.countWithinRadius(SpatialField.LOCATION, 10, 10, 0.5));
+
+        assertTrue(failures.isEmpty(), "Spatial queries without GiST index:\n" + String.join("\n", failures));
+    }
+
+    /**
+     * Отдельный экземпляр с нужным режимом шаблонов поверх общего EntityManager приложения
+     */
+    private PersonRepositoryCustomImpl repository(boolean templates) {
+        PersonRepositoryCustomImpl repository = new PersonRepositoryCustomImpl(new SimpleMeterRegistry(), templates, 1000);
+        ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+        return repository;
+    }
+
+    /**
+     * Выполняет action, записывая все его запросы, и проверяет план каждого:
+     * нет Seq Scan по persons, а для пространственных - используется индекс *_point
+     */
+    private void check(List<String> failures, String name, boolean spatial, Runnable action) {
+        List<RecordedStatement> statements = RECORDER.record(action);
+        assertFalse(statements.isEmpty(), name + ": no SQL was executed");
+
+        for (RecordedStatement statement : statements) {
+            String plan = explain(statement);
+            log.info("{} -> {}", name, plan.lines().findFirst().orElse(""));
+            if (plan.contains("Seq Scan on persons") || spatial && !plan.contains("_point")) {
+                failures.add(name + ": " + statement.sql() + "\n" + plan);
+            }
+        }
+    }
+
+    private String explain(RecordedStatement statement) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+                for (ParameterSetOperation parameter : statement.parameters()) {
+                    parameter.getMethod().invoke(explain, parameter.getArgs());
+                }
+                List<String> lines = new ArrayList<>();
+                try (ResultSet rows = explain.executeQuery()) {
+                    while (rows.next()) {
+                        lines.add(rows.getString(1));
+                    }
+                }
+                return String.join("\n", lines);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new SQLException("Cannot bind parameters of " + statement.sql(), e);
+            }
+        });
+    }
+
+    private record RecordedStatement(String sql, List<ParameterSetOperation> parameters) {
+    }
+
+    /**
+     * Запросы, отправленные в базу во время record; вне record ничего не пишется,
+     * поэтому сами EXPLAIN и наполнение таблицы не попадают в запись
+     */
+    private static final class StatementRecorder {
+        private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+        private volatile boolean recording;
+
+        List<RecordedStatement> record(Runnable action) {
+            statements.clear();
+            recording = true;
+            try {
+                action.run();
+            } finally {
+                recording = false;
+            }
+            return List.copyOf(statements);
+        }
+
+        void afterQuery(QueryInfo queryInfo) {
+            if (recording) {
+                List<List<ParameterSetOperation>> parameters = queryInfo.getParametersList();
+                statements.add(new RecordedStatement(queryInfo.getQuery(),
+                        parameters.isEmpty() ? List.of() : List.copyOf(parameters.get(0))));
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!"dataSource".equals(beanName) || !(bean instanceof DataSource)) {
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create("recording", (DataSource) bean)
+                            .afterQuery((execInfo, queryInfoList) -> queryInfoList.forEach(RECORDER::afterQuery))
+                            .build();
+                }
+            };
+        }
+    }
+}
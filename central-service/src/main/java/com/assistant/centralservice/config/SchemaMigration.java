@@ -0,0 +1,39 @@
+package com.assistant.centralservice.config;
+
+import jakarta.annotation.Priority;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+
+import javax.sql.DataSource;
+import java.util.logging.Logger;
+
+/**
+ * Применяет Flyway-миграции из модуля database-migrations при старте приложения,
+ * раньше остальных наблюдателей инициализации (прогрев агрегатов и т.п.).
+ * Существующая база без истории миграций принимается за версию 1.
+ */
+@ApplicationScoped
+public class SchemaMigration {
+
+    private static final Logger log = Logger.getLogger(SchemaMigration.class.getName());
+
+    @Resource(lookup = "java:jboss/datasources/PersonDS")
+    private DataSource dataSource;
+
+    void migrate(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) @Initialized(ApplicationScoped.class) Object init) {
+        MigrateResult result = Flyway.configure(getClass().getClassLoader())
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+        log.info("Schema migrated to version " + result.targetSchemaVersion
+                + ", applied migrations: " + result.migrationsExecuted);
+    }
+}
@@ -4,6 +4,9 @@ import com.assistant.centralservice.model.Country;
 import com.assistant.centralservice.model.Person;
 import com.assistant.centralservice.model.HairColor;
 import com.assistant.centralservice.model.EyeColor;
+import com.assistant.personquery.CriteriaFilters;
+import com.assistant.personquery.PersonFilter;
+import com.assistant.personquery.SortKey;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -11,8 +14,8 @@ import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import jakarta.transaction.Transactional;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -64,19 +67,17 @@ public class PersonRepository {
                                                List<String> sortParams,
                                                int page,
                                                int size) {
+        PersonFilter filter = PersonFilter.compile(filters);
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Person> query = cb.createQuery(Person.class);
         Root<Person> root = query.from(Person.class);
 
-        List<Predicate> predicates = buildPredicates(cb, root, filters);
+        List<Predicate> predicates = CriteriaFilters.toPredicates(cb, root, filter);
         if (!predicates.isEmpty()) {
             query.where(cb.and(predicates.toArray(new Predicate[0])));
         }
 
-        List<Order> orders = buildOrders(cb, root, sortParams);
-        if (!orders.isEmpty()) {
-            query.orderBy(orders);
-        }
+        query.orderBy(CriteriaFilters.toOrders(cb, root, SortKey.parse(sortParams)));
 
         TypedQuery<Person> typedQuery = entityManager.createQuery(query);
 
@@ -87,13 +88,14 @@ public class PersonRepository {
     }
 
     public long countWithFilters(Map<String, Object> filters) {
+        PersonFilter filter = PersonFilter.compile(filters);
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Long> query = cb.createQuery(Long.class);
         Root<Person> root = query.from(Person.class);
 
         query.select(cb.count(root));
 
-        List<Predicate> predicates = buildPredicates(cb, root, filters);
+        List<Predicate> predicates = CriteriaFilters.toPredicates(cb, root, filter);
         if (!predicates.isEmpty()) {
             query.where(cb.and(predicates.toArray(new Predicate[0])));
         }
@@ -142,128 +144,6 @@ public class PersonRepository {
                 .getResultList();
     }
 
-    /**
-     * Метод, помогающий построить фильтры
-     */
-    private List<Predicate> buildPredicates(CriteriaBuilder cb, Root<Person> root, Map<String, Object> filters) {
-        List<Predicate> predicates = new ArrayList<>();
-
-        for (Map.Entry<String, Object> filter : filters.entrySet()) {
-            String key = filter.getKey();
-            Object value = filter.getValue();
-
-            if (value == null) continue;
-
-            switch (key) {
-                case "id":
-                    predicates.add(cb.equal(root.get("id"), value));
-                    break;
-                case "id[lt]":
-                    predicates.add(cb.lessThan(root.get("id"), (Integer) value));
-                    break;
-                case "id[gt]":
-                    predicates.add(cb.greaterThan(root.get("id"), (Integer) value));
-                    break;
-                case "name":
-                    predicates.add(cb.equal(root.get("name"), value));
-                    break;
-                case "height":
-                    predicates.add(cb.equal(root.get("height"), value));
-                    break;
-                case "height[lt]":
-                    predicates.add(cb.lessThan(root.get("height"), (Double) value));
-                    break;
-                case "height[gt]":
-                    predicates.add(cb.greaterThan(root.get("height"), (Double) value));
-                    break;
-                case "weight":
-                    predicates.add(cb.equal(root.get("weight"), value));
-                    break;
-                case "weight[lt]":
-                    predicates.add(cb.lessThan(root.get("weight"), (Long) value));
-                    break;
-                case "weight[gt]":
-                    predicates.add(cb.greaterThan(root.get("weight"), (Long) value));
-                    break;
-                case "nationality":
-                    predicates.add(cb.equal(root.get("nationality"),
-                            Country.valueOf((String) value)));
-                    break;
-                case "birthday":
-                    predicates.add(cb.equal(root.get("birthday"), value));
-                    break;
-                case "birthday[lt]":
-                    predicates.add(cb.lessThan(root.get("birthday"), (LocalDate) value));
-                    break;
-                case "birthday[gt]":
-                    predicates.add(cb.greaterThan(root.get("birthday"), (LocalDate) value));
-                    break;
-            }
-        }
-
-        return predicates;
-    }
-
-    /**
-     * Метод, помогающий назначить порядок сортировки
-     */
-    private List<Order> buildOrders(CriteriaBuilder cb, Root<Person> root, List<String> sortParams) {
-        List<Order> orders = new ArrayList<>();
-
-        if (sortParams == null || sortParams.isEmpty()) {
-            orders.add(cb.asc(root.get("id")));
-            return orders;
-        }
-
-        for (String sortParam : sortParams) {
-            String[] parts = sortParam.split(",");
-            if (parts.length != 2) continue;
-
-            String field = parts[0].trim();
-            boolean ascending = "asc".equalsIgnoreCase(parts[1].trim());
-
-            Expression<?> expression = getExpression(root, field);
-            if (expression != null) {
-                orders.add(ascending ? cb.asc(expression) : cb.desc(expression));
-            }
-        }
-
-        if (orders.isEmpty()) {
-            orders.add(cb.asc(root.get("id")));
-        }
-
-        return orders;
-    }
-
-    private Expression<?> getExpression(Root<Person> root, String field) {
-        switch (field) {
-            case "id":
-                return root.get("id");
-            case "name":
-                return root.get("name");
-            case "height":
-                return root.get("height");
-            case "weight":
-                return root.get("weight");
-            case "birthday":
-                return root.get("birthday");
-            case "nationality":
-                return root.get("nationality");
-            case "coordinates.x":
-                return root.get("coordinates").get("x");
-            case "coordinates.y":
-                return root.get("coordinates").get("y");
-            case "location.x":
-                return root.get("location").get("x");
-            case "location.y":
-                return root.get("location").get("y");
-            case "location.name":
-                return root.get("location").get("name");
-            default:
-                return null;
-        }
-    }
-
     public long getTotalCount() {
         return entityManager.createQuery("SELECT COUNT(p) FROM Person p", Long.class)
                 .getSingleResult();
@@ -277,24 +157,55 @@ public class PersonRepository {
                 .getSingleResult();
     }
 
+    public List<Object[]> countGroupedByDemography() {
+        return entityManager.createQuery(
+                        "SELECT p.nationality, p.eyeColor, p.hairColor, COUNT(p) FROM Person p " +
+                                "GROUP BY p.nationality, p.eyeColor, p.hairColor",
+                        Object[].class)
+                .getResultList();
+    }
+
     public double getPercentageByNationalityAndEyeColor(Country nationality, EyeColor eyeColor) {
-        Long totalByNationality = entityManager.createQuery(
-                        "SELECT COUNT(p) FROM Person p WHERE p.nationality = :nationality",
-                        Long.class)
+        Object[] counts = entityManager.createQuery(
+                        "SELECT COUNT(p), COUNT(CASE WHEN p.eyeColor = :eyeColor THEN 1 END) " +
+                                "FROM Person p WHERE p.nationality = :nationality",
+                        Object[].class)
                 .setParameter("nationality", nationality)
+                .setParameter("eyeColor", eyeColor)
                 .getSingleResult();
 
+        long totalByNationality = (Long) counts[0];
         if (totalByNationality == 0) {
             return 0.0;
         }
 
-        Long countByNationalityAndEyeColor = entityManager.createQuery(
-                        "SELECT COUNT(p) FROM Person p WHERE p.nationality = :nationality AND p.eyeColor = :eyeColor",
-                        Long.class)
+        return (double) (Long) counts[1] / totalByNationality * 100.0;
+    }
+
+    public Map<EyeColor, Double> getEyeColorDistributionByNationality(Country nationality) {
+        List<Object[]> rows = entityManager.createQuery(
+                        "SELECT p.eyeColor, COUNT(p) FROM Person p WHERE p.nationality = :nationality " +
+                                "GROUP BY p.eyeColor",
+                        Object[].class)
                 .setParameter("nationality", nationality)
-                .setParameter("eyeColor", eyeColor)
-                .getSingleResult();
+                .getResultList();
 
-        return (double) countByNationalityAndEyeColor / totalByNationality * 100.0;
+        long totalByNationality = 0;
+        long[] counts = new long[EyeColor.values().length];
+        for (Object[] row : rows) {
+            long count = (Long) row[1];
+            totalByNationality += count;
+            if (row[0] != null) {
+                counts[((EyeColor) row[0]).ordinal()] = count;
+            }
+        }
+
+        Map<EyeColor, Double> distribution = new EnumMap<>(EyeColor.class);
+        for (EyeColor eyeColor : EyeColor.values()) {
+            distribution.put(eyeColor, totalByNationality == 0
+                    ? 0.0
+                    : (double) counts[eyeColor.ordinal()] / totalByNationality * 100.0);
+        }
+        return distribution;
     }
-}
\ No newline at end of file
+}
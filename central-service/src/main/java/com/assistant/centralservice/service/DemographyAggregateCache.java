@@ -0,0 +1,163 @@
+package com.assistant.centralservice.service;
+
+import com.assistant.centralservice.model.Country;
+import com.assistant.centralservice.model.EyeColor;
+import com.assistant.centralservice.model.HairColor;
+import com.assistant.centralservice.model.Person;
+import com.assistant.centralservice.repository.PersonRepository;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Агрегаты по демографии в памяти, индексированные по ordinal() перечислений:
+ * количество по цвету волос, по национальности и по паре (национальность, цвет глаз).
+ * Прогревается одним GROUP BY при старте, обновляется после коммита операций PersonService
+ * и пересинхронизируется с базой при чтении, если снимок старше заданного интервала.
+ */
+@ApplicationScoped
+public class DemographyAggregateCache {
+
+    private static final Logger log = Logger.getLogger(DemographyAggregateCache.class.getName());
+    private static final int EYE_COLORS = EyeColor.values().length;
+
+    @Inject
+    private PersonRepository personRepository;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @Inject
+    @ConfigProperty(name = "demography.aggregates.resync-interval-ms", defaultValue = "60000")
+    private long resyncIntervalMs;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile Counters counters;
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.log(Level.WARNING, "Demography aggregates were not warmed, falling back to database queries", e);
+        }
+    }
+
+    public void rebuild() {
+        Counters rebuilt = new Counters();
+        for (Object[] row : personRepository.countGroupedByDemography()) {
+            rebuilt.add((Country) row[0], (EyeColor) row[1], (HairColor) row[2], (Long) row[3]);
+        }
+        counters = rebuilt;
+    }
+
+    public boolean isReady() {
+        Counters snapshot = counters;
+        if (snapshot != null && System.currentTimeMillis() - snapshot.builtAt > resyncIntervalMs
+                && rebuilding.compareAndSet(false, true)) {
+            try {
+                rebuild();
+            } finally {
+                rebuilding.set(false);
+            }
+        }
+        return counters != null;
+    }
+
+    public long countByHairColor(HairColor hairColor) {
+        return counters.hairColor.get(hairColor.ordinal());
+    }
+
+    public double getPercentageByNationalityAndEyeColor(Country nationality, EyeColor eyeColor) {
+        Counters snapshot = counters;
+        long total = snapshot.nationality.get(nationality.ordinal());
+        if (total == 0) {
+            return 0.0;
+        }
+        long matching = snapshot.nationalityEyeColor.get(nationality.ordinal() * EYE_COLORS + eyeColor.ordinal());
+        return (double) matching / total * 100.0;
+    }
+
+    public Map<EyeColor, Double> getEyeColorDistributionByNationality(Country nationality) {
+        Counters snapshot = counters;
+        long total = snapshot.nationality.get(nationality.ordinal());
+        Map<EyeColor, Double> distribution = new EnumMap<>(EyeColor.class);
+        for (EyeColor eyeColor : EyeColor.values()) {
+            long matching = snapshot.nationalityEyeColor.get(nationality.ordinal() * EYE_COLORS + eyeColor.ordinal());
+            distribution.put(eyeColor, total == 0 ? 0.0 : (double) matching / total * 100.0);
+        }
+        return distribution;
+    }
+
+    public void onCreated(Person person) {
+        afterCommit(person.getNationality(), person.getEyeColor(), person.getHairColor(), 1);
+    }
+
+    public void onDeleted(Person person) {
+        afterCommit(person.getNationality(), person.getEyeColor(), person.getHairColor(), -1);
+    }
+
+    public void onUpdated(Country oldNationality, EyeColor oldEyeColor, HairColor oldHairColor, Person updated) {
+        afterCommit(oldNationality, oldEyeColor, oldHairColor, -1);
+        afterCommit(updated.getNationality(), updated.getEyeColor(), updated.getHairColor(), 1);
+    }
+
+    private void afterCommit(Country nationality, EyeColor eyeColor, HairColor hairColor, long delta) {
+        if (transactionSynchronizationRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            apply(nationality, eyeColor, hairColor, delta);
+            return;
+        }
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    apply(nationality, eyeColor, hairColor, delta);
+                }
+            }
+        });
+    }
+
+    private void apply(Country nationality, EyeColor eyeColor, HairColor hairColor, long delta) {
+        Counters snapshot = counters;
+        if (snapshot != null) {
+            snapshot.add(nationality, eyeColor, hairColor, delta);
+        }
+    }
+
+    private static final class Counters {
+        private final long builtAt = System.currentTimeMillis();
+        private final AtomicLongArray hairColor = new AtomicLongArray(HairColor.values().length);
+        private final AtomicLongArray nationality = new AtomicLongArray(Country.values().length);
+        private final AtomicLongArray nationalityEyeColor =
+                new AtomicLongArray(Country.values().length * EYE_COLORS);
+
+        private void add(Country nationality, EyeColor eyeColor, HairColor hairColor, long delta) {
+            if (hairColor != null) {
+                this.hairColor.addAndGet(hairColor.ordinal(), delta);
+            }
+            if (nationality != null) {
+                this.nationality.addAndGet(nationality.ordinal(), delta);
+                if (eyeColor != null) {
+                    this.nationalityEyeColor.addAndGet(nationality.ordinal() * EYE_COLORS + eyeColor.ordinal(), delta);
+                }
+            }
+        }
+    }
+}
@@ -20,6 +20,9 @@ public class PersonService {
     @Inject
     private PersonRepository personRepository;
 
+    @Inject
+    private DemographyAggregateCache aggregateCache;
+
     public Person create(PersonCreateRequest request) {
         Person person = new Person();
         person.setName(request.getName());
@@ -33,7 +36,9 @@ public class PersonService {
         person.setEyeColor(request.getEyeColor());
         person.setCreationDate(new Date());
 
-        return personRepository.save(person);
+        Person saved = personRepository.save(person);
+        aggregateCache.onCreated(saved);
+        return saved;
     }
 
     public Optional<Person> findById(Integer id) {
@@ -47,6 +52,10 @@ public class PersonService {
         }
 
         Person person = optionalPerson.get();
+        Country oldNationality = person.getNationality();
+        EyeColor oldEyeColor = person.getEyeColor();
+        HairColor oldHairColor = person.getHairColor();
+
         person.setName(request.getName());
         person.setCoordinates(request.getCoordinates());
         person.setHeight(request.getHeight());
@@ -57,11 +66,19 @@ public class PersonService {
         person.setHairColor(request.getHairColor());
         person.setEyeColor(request.getEyeColor());
 
-        return personRepository.save(person);
+        Person saved = personRepository.save(person);
+        aggregateCache.onUpdated(oldNationality, oldEyeColor, oldHairColor, saved);
+        return saved;
     }
 
     public boolean delete(Integer id) {
-        return personRepository.deleteById(id);
+        Optional<Person> person = personRepository.findById(id);
+        if (person.isEmpty()) {
+            return false;
+        }
+        personRepository.delete(person.get());
+        aggregateCache.onDeleted(person.get());
+        return true;
     }
 
     public List<Person> findAll() {
@@ -99,6 +116,9 @@ public class PersonService {
     public long countByHairColor(String hairColorString) {
         try {
             HairColor hairColor = HairColor.valueOf(hairColorString.toUpperCase());
+            if (aggregateCache.isReady()) {
+                return aggregateCache.countByHairColor(hairColor);
+            }
             return personRepository.countByHairColor(hairColor);
         } catch (IllegalArgumentException e) {
             return 0;
@@ -109,9 +129,20 @@ public class PersonService {
         try {
             Country nationality = Country.valueOf(nationalityString.toUpperCase());
             EyeColor eyeColor = EyeColor.valueOf(eyeColorString.toUpperCase());
+            if (aggregateCache.isReady()) {
+                return aggregateCache.getPercentageByNationalityAndEyeColor(nationality, eyeColor);
+            }
             return personRepository.getPercentageByNationalityAndEyeColor(nationality, eyeColor);
         } catch (IllegalArgumentException e) {
             return 0.0;
         }
     }
+
+    public Map<EyeColor, Double> getEyeColorDistributionByNationality(String nationalityString) {
+        Country nationality = Country.valueOf(nationalityString.toUpperCase());
+        if (aggregateCache.isReady()) {
+            return aggregateCache.getEyeColorDistributionByNationality(nationality);
+        }
+        return personRepository.getEyeColorDistributionByNationality(nationality);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+-- Таблица persons в том виде, в котором ее создавал hibernate.hbm2ddl.auto=update.
+-- На существующей базе миграция пропускается (baseline на версии 1).
+CREATE TABLE IF NOT EXISTS persons
+(
+    id            INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name          VARCHAR(255)     NOT NULL,
+    coord_x       DOUBLE PRECISION NOT NULL,
+    coord_y       REAL             NOT NULL,
+    creation_date TIMESTAMP        NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    height        DOUBLE PRECISION NOT NULL,
+    birthday      DATE             NOT NULL,
+    weight        BIGINT,
+    nationality   VARCHAR(255)     NOT NULL
+        CONSTRAINT persons_nationality_check
+            CHECK (nationality IN ('RUSSIA', 'CHINA', 'INDIA', 'ITALY', 'SOUTH_KOREA')),
+    location_x    REAL,
+    location_y    INTEGER          NOT NULL,
+    location_name VARCHAR(255)     NOT NULL,
+    hair_color    VARCHAR(255)
+        CONSTRAINT persons_hair_color_check
+            CHECK (hair_color IN ('BLONDE', 'BRUNETTE', 'BROWN', 'RED', 'BLACK', 'GRAY', 'WHITE')),
+    eye_color     VARCHAR(255)
+        CONSTRAINT persons_eye_color_check
+            CHECK (eye_color IN ('BROWN', 'BLUE', 'GREEN', 'GRAY', 'BLACK', 'AMBER', 'HAZEL'))
+);
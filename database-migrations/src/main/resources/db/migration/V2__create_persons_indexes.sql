@@ -0,0 +1,19 @@
+-- Фильтры и сортировки списка персон (buildPredicates / getExpression)
+CREATE INDEX IF NOT EXISTS idx_persons_name ON persons (name);
+CREATE INDEX IF NOT EXISTS idx_persons_weight ON persons (weight);
+CREATE INDEX IF NOT EXISTS idx_persons_birthday ON persons (birthday);
+CREATE INDEX IF NOT EXISTS idx_persons_coord_x ON persons (coord_x);
+CREATE INDEX IF NOT EXISTS idx_persons_coord_y ON persons (coord_y);
+CREATE INDEX IF NOT EXISTS idx_persons_location_x ON persons (location_x);
+CREATE INDEX IF NOT EXISTS idx_persons_location_y ON persons (location_y);
+-- Также первая колонка для countByLocation
+CREATE INDEX IF NOT EXISTS idx_persons_location_name ON persons (location_name, location_y, location_x);
+
+-- Фильтр и сортировка по росту и выборка по росту (findByHeightGreaterThan):
+-- id в ключе дает однозначный порядок и index-only подсчет
+CREATE INDEX IF NOT EXISTS idx_persons_height_id ON persons (height, id);
+
+-- Демографическая статистика: фильтр по национальности, процент по (национальность, цвет глаз),
+-- количество по цвету волос
+CREATE INDEX IF NOT EXISTS idx_persons_nationality_eye_color ON persons (nationality, eye_color);
+CREATE INDEX IF NOT EXISTS idx_persons_hair_color ON persons (hair_color);
@@ -0,0 +1,2 @@
+-- Фильтр eyeColor[in] без национальности: в idx_persons_nationality_eye_color цвет глаз только второй колонкой
+CREATE INDEX IF NOT EXISTS idx_persons_eye_color ON persons (eye_color);
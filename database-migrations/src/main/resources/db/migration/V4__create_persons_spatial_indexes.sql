@@ -0,0 +1,5 @@
+-- Поиск по прямоугольнику и рядом с точкой (findInBox / findNearest): GiST по point(x, y) отвечает
+-- на point <@ box и point <@ circle и отдает строки по возрастанию расстояния <-> для k ближайших.
+-- Запросы должны использовать то же выражение point(...), что и индекс
+CREATE INDEX IF NOT EXISTS idx_persons_coordinates_point ON persons USING gist (point(coord_x, coord_y));
+CREATE INDEX IF NOT EXISTS idx_persons_location_point ON persons USING gist (point(location_x, location_y));
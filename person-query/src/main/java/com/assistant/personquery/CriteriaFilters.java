@@ -0,0 +1,108 @@
+package com.assistant.personquery;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Перевод разобранного фильтра и сортировки в JPA Criteria для сущности Person
+ */
+public final class CriteriaFilters {
+
+    private CriteriaFilters() {
+    }
+
+    public static Path<?> path(Path<?> root, PersonField field) {
+        Path<?> path = root;
+        for (String segment : field.getSegments()) {
+            path = path.get(segment);
+        }
+        return path;
+    }
+
+    public static List<Predicate> toPredicates(CriteriaBuilder cb, Path<?> root, PersonFilter filter) {
+        return toPredicates(cb, root, filter, PredicateCostModel.DEFAULT);
+    }
+
+    public static List<Predicate> toPredicates(CriteriaBuilder cb, Path<?> root, PersonFilter filter,
+                                               PredicateCostModel costModel) {
+        List<Predicate> predicates = new ArrayList<>();
+        for (FilterCondition condition : filter.ordered(costModel)) {
+            predicates.add(toPredicate(cb, root, condition));
+        }
+        return predicates;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Predicate toPredicate(CriteriaBuilder cb, Path<?> root, FilterCondition condition) {
+        Path<?> path = path(root, condition.getField());
+        Expression<Comparable> comparable = (Expression<Comparable>) path;
+
+        switch (condition.getOperator()) {
+            case EQ:
+                return cb.equal(path, toPathType(path, condition.getValue()));
+            case LT:
+                return cb.lessThan(comparable, (Comparable) toPathType(path, condition.getValue()));
+            case GT:
+                return cb.greaterThan(comparable, (Comparable) toPathType(path, condition.getValue()));
+            case LTE:
+                return cb.lessThanOrEqualTo(comparable, (Comparable) toPathType(path, condition.getValue()));
+            case GTE:
+                return cb.greaterThanOrEqualTo(comparable, (Comparable) toPathType(path, condition.getValue()));
+            case IN:
+                List<Object> values = new ArrayList<>(condition.getValues().size());
+                for (Object value : condition.getValues()) {
+                    values.add(toPathType(path, value));
+                }
+                return path.in(values);
+            case BETWEEN:
+                return cb.between(comparable,
+                        (Comparable) toPathType(path, condition.getValues().get(0)),
+                        (Comparable) toPathType(path, condition.getValues().get(1)));
+            case LIKE:
+                return cb.like((Expression<String>) path, (String) condition.getValue());
+            default:
+                throw new IllegalStateException("Unsupported operator: " + condition.getOperator());
+        }
+    }
+
+    /**
+     * Порядок сортировки; без ключей - по id, чтобы страницы были стабильными
+     */
+    public static List<Order> toOrders(CriteriaBuilder cb, Path<?> root, List<SortKey> sortKeys) {
+        List<Order> orders = new ArrayList<>();
+
+        for (SortKey sortKey : sortKeys) {
+            Path<?> path = path(root, sortKey.getField());
+            orders.add(sortKey.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+
+        if (orders.isEmpty()) {
+            orders.add(cb.asc(path(root, PersonField.ID)));
+        }
+
+        return orders;
+    }
+
+    /**
+     * Имя константы в значение перечисления, если атрибут сущности - перечисление;
+     * неизвестное имя - InvalidFilterException
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Object toPathType(Expression<?> expression, Object value) {
+        Class<?> type = expression.getJavaType();
+        if (value instanceof String && type != null && type.isEnum()) {
+            try {
+                return Enum.valueOf((Class<Enum>) type, (String) value);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidFilterException("Unknown " + type.getSimpleName() + ": " + value, e);
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,10 @@
+package com.assistant.personquery;
+
+/**
+ * Значение поля у объекта в памяти, для проверки фильтра без базы
+ */
+@FunctionalInterface
+public interface FieldAccessor<T> {
+
+    Object get(T item, PersonField field);
+}
@@ -0,0 +1,86 @@
+package com.assistant.personquery;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Одно условие разобранного фильтра. Значения уже приведены к типу поля:
+ * одно для EQ, LT, GT, LTE, GTE и LIKE, два (нижняя и верхняя граница включительно) для BETWEEN, непустой список для IN
+ */
+public final class FilterCondition {
+
+    private final PersonField field;
+    private final FilterOperator operator;
+    private final List<Object> values;
+    private final Pattern likePattern;
+
+    FilterCondition(PersonField field, FilterOperator operator, List<Object> values) {
+        this.field = field;
+        this.operator = operator;
+        this.values = values;
+        this.likePattern = operator == FilterOperator.LIKE ? likePattern((String) values.get(0)) : null;
+    }
+
+    public PersonField getField() {
+        return field;
+    }
+
+    public FilterOperator getOperator() {
+        return operator;
+    }
+
+    public Object getValue() {
+        return values.get(0);
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Ключ в том виде, в котором он приходит от клиента: "height[gt]", "name"
+     */
+    public String getKey() {
+        return key(field, operator);
+    }
+
+    /**
+     * Для LIKE: тот же шаблон в виде регулярного выражения, для проверки в памяти
+     */
+    Pattern getLikePattern() {
+        return likePattern;
+    }
+
+    static String key(PersonField field, FilterOperator operator) {
+        return operator == FilterOperator.EQ ? field.getPath() : field.getPath() + "[" + operator.getSuffix() + "]";
+    }
+
+    @Override
+    public String toString() {
+        return getKey() + "=" + (values.size() == 1 ? values.get(0) : values);
+    }
+
+    /**
+     * Шаблон LIKE в регулярное выражение: % - любая строка, _ - один символ, остальное буквально
+     */
+    private static Pattern likePattern(String like) {
+        StringBuilder regex = new StringBuilder(like.length() + 8);
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
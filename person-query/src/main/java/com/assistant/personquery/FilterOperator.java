@@ -0,0 +1,38 @@
+package com.assistant.personquery;
+
+/**
+ * Оператор фильтра; суффикс - то, что пишется в ключе фильтра в квадратных скобках ("height[gt]")
+ */
+public enum FilterOperator {
+
+    EQ(""),
+    LT("lt"),
+    GT("gt"),
+    LTE("lte"),
+    GTE("gte"),
+    IN("in"),
+    BETWEEN("between"),
+    LIKE("like");
+
+    private final String suffix;
+
+    FilterOperator(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * Оператор по суффиксу ключа; null, если такого нет
+     */
+    public static FilterOperator fromSuffix(String suffix) {
+        for (FilterOperator operator : values()) {
+            if (operator.suffix.equals(suffix)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.assistant.personquery;
+
+/**
+ * Фильтр или его значение не прошли проверку при разборе, до обращения к базе
+ */
+public class InvalidFilterException extends IllegalArgumentException {
+
+    public InvalidFilterException(String message) {
+        super(message);
+    }
+
+    public InvalidFilterException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
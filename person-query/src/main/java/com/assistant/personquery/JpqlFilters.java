@@ -0,0 +1,71 @@
+package com.assistant.personquery;
+
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Перевод условий фильтра в текст JPQL с именованными параметрами, для запросов с постоянным текстом.
+ * Текст условия зависит только от поля и оператора, значения привязываются отдельно через bind
+ */
+public final class JpqlFilters {
+
+    private JpqlFilters() {
+    }
+
+    /**
+     * Условие над alias.path с параметром parameter; у BETWEEN вторая граница - upperParameter(parameter)
+     */
+    public static String condition(String alias, FilterCondition condition, String parameter) {
+        String path = alias + "." + condition.getField().getPath();
+        switch (condition.getOperator()) {
+            case EQ:
+                return path + " = :" + parameter;
+            case LT:
+                return path + " < :" + parameter;
+            case GT:
+                return path + " > :" + parameter;
+            case LTE:
+                return path + " <= :" + parameter;
+            case GTE:
+                return path + " >= :" + parameter;
+            case IN:
+                return path + " in :" + parameter;
+            case BETWEEN:
+                return path + " between :" + parameter + " and :" + upperParameter(parameter);
+            case LIKE:
+                return path + " like :" + parameter;
+            default:
+                throw new IllegalStateException("Unsupported operator: " + condition.getOperator());
+        }
+    }
+
+    /**
+     * Значения условия в параметры запроса; converter приводит значение к типу атрибута (например, имя к перечислению)
+     */
+    public static void bind(Query query, FilterCondition condition, String parameter,
+                            BiFunction<PersonField, Object, Object> converter) {
+        PersonField field = condition.getField();
+        switch (condition.getOperator()) {
+            case IN:
+                List<Object> values = new ArrayList<>(condition.getValues().size());
+                for (Object value : condition.getValues()) {
+                    values.add(converter.apply(field, value));
+                }
+                query.setParameter(parameter, values);
+                break;
+            case BETWEEN:
+                query.setParameter(parameter, converter.apply(field, condition.getValues().get(0)));
+                query.setParameter(upperParameter(parameter), converter.apply(field, condition.getValues().get(1)));
+                break;
+            default:
+                query.setParameter(parameter, converter.apply(field, condition.getValue()));
+        }
+    }
+
+    public static String upperParameter(String parameter) {
+        return parameter + "_to";
+    }
+}
@@ -0,0 +1,76 @@
+package com.assistant.personquery;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static com.assistant.personquery.FilterOperator.*;
+
+/**
+ * Поля персоны, по которым можно фильтровать и сортировать список.
+ * Путь - атрибут сущности Person (через точку для встроенных Coordinates и Location),
+ * тип - Java-тип значения фильтра; перечисления передаются по имени константы.
+ * nullable - может ли колонка быть NULL: от этого зависит условие keyset-пагинации
+ */
+public enum PersonField {
+
+    ID("id", Integer.class, false, EnumSet.of(EQ, LT, GT, LTE, GTE, IN, BETWEEN)),
+    NAME("name", String.class, false, EnumSet.of(EQ, IN, LIKE)),
+    HEIGHT("height", Double.class, false, EnumSet.of(EQ, LT, GT, LTE, GTE, IN, BETWEEN)),
+    WEIGHT("weight", Long.class, true, EnumSet.of(EQ, LT, GT, LTE, GTE, IN, BETWEEN)),
+    BIRTHDAY("birthday", LocalDate.class, false, EnumSet.of(EQ, LT, GT, LTE, GTE, IN, BETWEEN)),
+    NATIONALITY("nationality", String.class, false, EnumSet.of(EQ, IN)),
+    HAIR_COLOR("hairColor", String.class, true, EnumSet.of(EQ, IN)),
+    EYE_COLOR("eyeColor", String.class, true, EnumSet.of(EQ, IN)),
+    COORDINATES_X("coordinates.x", Double.class, false, EnumSet.noneOf(FilterOperator.class)),
+    COORDINATES_Y("coordinates.y", Float.class, false, EnumSet.noneOf(FilterOperator.class)),
+    LOCATION_X("location.x", Float.class, true, EnumSet.noneOf(FilterOperator.class)),
+    LOCATION_Y("location.y", Integer.class, false, EnumSet.noneOf(FilterOperator.class)),
+    LOCATION_NAME("location.name", String.class, false, EnumSet.noneOf(FilterOperator.class));
+
+    private final String path;
+    private final String[] segments;
+    private final Class<?> valueType;
+    private final boolean nullable;
+    private final Set<FilterOperator> operators;
+
+    PersonField(String path, Class<?> valueType, boolean nullable, Set<FilterOperator> operators) {
+        this.path = path;
+        this.segments = path.split("\\.");
+        this.valueType = valueType;
+        this.nullable = nullable;
+        this.operators = operators;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    String[] getSegments() {
+        return segments;
+    }
+
+    public Class<?> getValueType() {
+        return valueType;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public boolean supports(FilterOperator operator) {
+        return operators.contains(operator);
+    }
+
+    /**
+     * Поле по пути вида "location.name"; null, если такого поля нет
+     */
+    public static PersonField fromPath(String path) {
+        for (PersonField field : values()) {
+            if (field.path.equals(path)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,244 @@
+package com.assistant.personquery;
+
+import java.lang.reflect.Array;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разобранный фильтр списка персон: карта "ключ -> значение" ("height[gt]" -> 150.0)
+ * один раз превращается в набор типизированных условий, которые затем переводятся в SQL
+ * (CriteriaFilters) или проверяются на объектах в памяти (matches).
+ * Неизвестный ключ, неподходящий оператор или значение не того типа - InvalidFilterException;
+ * ключи со значением null пропускаются
+ */
+public final class PersonFilter {
+
+    public static final PersonFilter EMPTY = new PersonFilter(List.of());
+
+    private final List<FilterCondition> conditions;
+    private final String signature;
+
+    private PersonFilter(List<FilterCondition> conditions) {
+        this.conditions = conditions;
+        List<String> keys = new ArrayList<>(conditions.size());
+        for (FilterCondition condition : conditions) {
+            keys.add(condition.getKey());
+        }
+        this.signature = String.join(",", keys);
+    }
+
+    public static PersonFilter compile(Map<String, ?> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<FilterCondition> conditions = new ArrayList<>(filters.size());
+        for (Map.Entry<String, ?> filter : filters.entrySet()) {
+            if (filter.getValue() != null) {
+                conditions.add(parse(filter.getKey(), filter.getValue()));
+            }
+        }
+        if (conditions.isEmpty()) {
+            return EMPTY;
+        }
+        conditions.sort(Comparator.comparing(FilterCondition::getKey));
+        return new PersonFilter(Collections.unmodifiableList(conditions));
+    }
+
+    /**
+     * Условия в каноническом порядке - по ключу
+     */
+    public List<FilterCondition> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Условия в порядке возрастания стоимости; при равной стоимости - в каноническом порядке
+     */
+    public List<FilterCondition> ordered(PredicateCostModel costModel) {
+        if (conditions.size() < 2) {
+            return conditions;
+        }
+        List<FilterCondition> ordered = new ArrayList<>(conditions);
+        ordered.sort(Comparator.comparingDouble(
+                condition -> costModel.cost(condition.getField(), condition.getOperator())));
+        return ordered;
+    }
+
+    /**
+     * Отсортированные ключи условий через запятую, без значений; пустая строка для пустого фильтра
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    public boolean isEmpty() {
+        return conditions.isEmpty();
+    }
+
+    public <T> boolean matches(T item, FieldAccessor<T> accessor) {
+        return matches(item, accessor, PredicateCostModel.DEFAULT);
+    }
+
+    /**
+     * Проверка объекта в памяти с той же семантикой, что и в SQL: сравнение с NULL дает false
+     */
+    public <T> boolean matches(T item, FieldAccessor<T> accessor, PredicateCostModel costModel) {
+        for (FilterCondition condition : ordered(costModel)) {
+            if (!matches(condition, accessor.get(item, condition.getField()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return conditions.toString();
+    }
+
+    private static boolean matches(FilterCondition condition, Object actual) {
+        if (actual == null) {
+            return false;
+        }
+        if (actual instanceof Enum<?>) {
+            actual = ((Enum<?>) actual).name();
+        }
+
+        switch (condition.getOperator()) {
+            case EQ:
+                return compare(actual, condition.getValue()) == 0;
+            case LT:
+                return compare(actual, condition.getValue()) < 0;
+            case GT:
+                return compare(actual, condition.getValue()) > 0;
+            case LTE:
+                return compare(actual, condition.getValue()) <= 0;
+            case GTE:
+                return compare(actual, condition.getValue()) >= 0;
+            case IN:
+                for (Object value : condition.getValues()) {
+                    if (compare(actual, value) == 0) {
+                        return true;
+                    }
+                }
+                return false;
+            case BETWEEN:
+                return compare(actual, condition.getValues().get(0)) >= 0
+                        && compare(actual, condition.getValues().get(1)) <= 0;
+            case LIKE:
+                return condition.getLikePattern().matcher(actual.toString()).matches();
+            default:
+                throw new IllegalStateException("Unsupported operator: " + condition.getOperator());
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object actual, Object value) {
+        if (actual instanceof Number && value instanceof Number && actual.getClass() != value.getClass()) {
+            return Double.compare(((Number) actual).doubleValue(), ((Number) value).doubleValue());
+        }
+        return ((Comparable) actual).compareTo(value);
+    }
+
+    private static FilterCondition parse(String key, Object value) {
+        PersonField field;
+        FilterOperator operator;
+        int bracket = key.indexOf('[');
+        if (bracket < 0) {
+            field = PersonField.fromPath(key);
+            operator = FilterOperator.EQ;
+        } else {
+            if (!key.endsWith("]")) {
+                throw new InvalidFilterException("Unknown filter: " + key);
+            }
+            field = PersonField.fromPath(key.substring(0, bracket));
+            operator = FilterOperator.fromSuffix(key.substring(bracket + 1, key.length() - 1));
+        }
+        if (field == null || operator == null || !field.supports(operator)) {
+            throw new InvalidFilterException("Unknown filter: " + key);
+        }
+
+        List<Object> values;
+        switch (operator) {
+            case IN:
+                values = new ArrayList<>();
+                for (Object element : elements(key, value)) {
+                    values.add(coerce(key, field, element));
+                }
+                if (values.isEmpty()) {
+                    throw new InvalidFilterException("Filter " + key + " requires at least one value");
+                }
+                break;
+            case BETWEEN:
+                values = new ArrayList<>(2);
+                for (Object element : elements(key, value)) {
+                    values.add(coerce(key, field, element));
+                }
+                if (values.size() != 2) {
+                    throw new InvalidFilterException("Filter " + key + " requires exactly two values");
+                }
+                break;
+            default:
+                values = List.of(coerce(key, field, value));
+        }
+        return new FilterCondition(field, operator, Collections.unmodifiableList(values));
+    }
+
+    private static List<Object> elements(String key, Object value) {
+        if (value instanceof Collection<?>) {
+            return new ArrayList<>((Collection<?>) value);
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> elements = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                elements.add(Array.get(value, i));
+            }
+            return elements;
+        }
+        throw new InvalidFilterException("Filter " + key + " requires a list of values");
+    }
+
+    /**
+     * Значение к типу поля: допускаются расширяющие числовые преобразования,
+     * дата строкой ISO-8601 и константа перечисления для строкового поля
+     */
+    private static Object coerce(String key, PersonField field, Object value) {
+        Class<?> type = field.getValueType();
+        if (value == null) {
+            throw new InvalidFilterException("Filter " + key + " contains null");
+        }
+        if (type.isInstance(value)) {
+            return value;
+        }
+
+        if (type == Long.class && (value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+            return ((Number) value).longValue();
+        }
+        if (type == Double.class && value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (type == Integer.class && (value instanceof Short || value instanceof Byte)) {
+            return ((Number) value).intValue();
+        }
+        if (type == String.class && value instanceof Enum<?>) {
+            return ((Enum<?>) value).name();
+        }
+        if (type == LocalDate.class && value instanceof String) {
+            try {
+                return LocalDate.parse((String) value);
+            } catch (DateTimeParseException e) {
+                throw new InvalidFilterException("Filter " + key + " expects a date: " + value, e);
+            }
+        }
+        throw new InvalidFilterException("Filter " + key + " expects " + type.getSimpleName()
+                + ", got " + value.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,33 @@
+package com.assistant.personquery;
+
+/**
+ * Оценка стоимости проверки условия: условия проверяются от дешевых и селективных к дорогим.
+ * Зависит только от поля и оператора, поэтому порядок условий определяется сигнатурой фильтра
+ * и одинаков для всех запросов с одним набором ключей
+ */
+@FunctionalInterface
+public interface PredicateCostModel {
+
+    double cost(PersonField field, FilterOperator operator);
+
+    /**
+     * Равенство по первичному ключу, затем равенства, списки, диапазоны и в конце LIKE
+     */
+    PredicateCostModel DEFAULT = (field, operator) -> {
+        switch (operator) {
+            case EQ:
+                return field == PersonField.ID ? 0 : 1;
+            case IN:
+                return 2;
+            case BETWEEN:
+                return 3;
+            case LT:
+            case GT:
+            case LTE:
+            case GTE:
+                return 4;
+            default:
+                return 5;
+        }
+    };
+}
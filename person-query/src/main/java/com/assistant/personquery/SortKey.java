@@ -0,0 +1,81 @@
+package com.assistant.personquery;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Поле и направление сортировки после разбора параметра "field,asc|desc"
+ */
+public final class SortKey {
+
+    private final PersonField field;
+    private final boolean ascending;
+
+    public SortKey(PersonField field, boolean ascending) {
+        this.field = field;
+        this.ascending = ascending;
+    }
+
+    public PersonField getField() {
+        return field;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Параметры без запятой и с неизвестным полем пропускаются; направление, отличное от asc, - убывание.
+     * Повторы поля и ключи после id на порядок не влияют и отбрасываются, поэтому одинаковые
+     * по смыслу сортировки дают одинаковые сигнатуры
+     */
+    public static List<SortKey> parse(List<String> sortParams) {
+        List<SortKey> sortKeys = new ArrayList<>();
+
+        if (sortParams == null) {
+            return sortKeys;
+        }
+
+        Set<PersonField> seen = EnumSet.noneOf(PersonField.class);
+        for (String sortParam : sortParams) {
+            String[] parts = sortParam.split(",");
+            if (parts.length != 2) continue;
+
+            PersonField field = PersonField.fromPath(parts[0].trim());
+            boolean ascending = "asc".equalsIgnoreCase(parts[1].trim());
+
+            if (field != null && seen.add(field)) {
+                sortKeys.add(new SortKey(field, ascending));
+                if (field == PersonField.ID) {
+                    break;
+                }
+            }
+        }
+
+        return sortKeys;
+    }
+
+    /**
+     * Можно ли проверить "после курсора" одним сравнением строк (k1, k2, ...) > (v1, v2, ...):
+     * ключей больше одного, все в одном направлении и ни одна колонка не бывает NULL
+     */
+    public static boolean isRowComparable(List<SortKey> sortKeys) {
+        if (sortKeys.size() < 2) {
+            return false;
+        }
+        boolean ascending = sortKeys.get(0).isAscending();
+        for (SortKey sortKey : sortKeys) {
+            if (sortKey.isAscending() != ascending || sortKey.getField().isNullable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return field.getPath() + (ascending ? ",asc" : ",desc");
+    }
+}
@@ -0,0 +1,83 @@
+package com.assistant.personquery;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonFilterTests {
+
+    private static final FieldAccessor<Map<PersonField, Object>> ACCESSOR = Map::get;
+
+    @Test
+    void compilesKeysIntoTypedConditions() {
+        Map<String, Object> filters = new HashMap<>();
+        filters.put("weight[gt]", 40);
+        filters.put("id", 7);
+        filters.put("birthday[lt]", "2000-01-01");
+        filters.put("name", null);
+
+        PersonFilter filter = PersonFilter.compile(filters);
+
+        assertEquals("birthday[lt],id,weight[gt]", filter.getSignature());
+        assertEquals(LocalDate.of(2000, 1, 1), filter.getConditions().get(0).getValue());
+        assertEquals(40L, filter.getConditions().get(2).getValue());
+        assertEquals(PersonField.ID, filter.ordered(PredicateCostModel.DEFAULT).get(0).getField());
+    }
+
+    @Test
+    void rejectsUnknownKeysAndWrongTypes() {
+        assertThrows(InvalidFilterException.class, () -> PersonFilter.compile(Map.of("age", 1)));
+        assertThrows(InvalidFilterException.class, () -> PersonFilter.compile(Map.of("name[gt]", "A")));
+        assertThrows(InvalidFilterException.class, () -> PersonFilter.compile(Map.of("height[lt]", "tall")));
+        assertThrows(InvalidFilterException.class, () -> PersonFilter.compile(Map.of("id", 1L)));
+        assertThrows(InvalidFilterException.class, () -> PersonFilter.compile(Map.of("height[between]", List.of(1.0))));
+        assertThrows(InvalidFilterException.class, () -> PersonFilter.compile(Map.of("nationality[in]", List.of())));
+    }
+
+    @Test
+    void matchesInMemoryLikeSql() {
+        PersonFilter filter = PersonFilter.compile(Map.of(
+                "height[between]", List.of(150.0, 180.0),
+                "nationality[in]", List.of("ITALY", "JAPAN"),
+                "name[like]", "Ann%"));
+
+        Map<PersonField, Object> person = new HashMap<>();
+        person.put(PersonField.HEIGHT, 180.0);
+        person.put(PersonField.NATIONALITY, "JAPAN");
+        person.put(PersonField.NAME, "Anna");
+        assertTrue(filter.matches(person, ACCESSOR));
+
+        person.put(PersonField.NAME, "Maria");
+        assertFalse(filter.matches(person, ACCESSOR));
+
+        PersonFilter range = PersonFilter.compile(Map.of("height[gte]", 180, "eyeColor[in]", List.of("BLUE")));
+        person.put(PersonField.EYE_COLOR, "BLUE");
+        assertTrue(range.matches(person, ACCESSOR));
+
+        person.put(PersonField.NAME, "Anna");
+        person.put(PersonField.HEIGHT, null);
+        assertFalse(filter.matches(person, ACCESSOR));
+    }
+
+    @Test
+    void comparesRowsOnlyForNotNullKeysInOneDirection() {
+        assertTrue(SortKey.isRowComparable(SortKey.parse(List.of("nationality,asc", "height,asc", "id,asc"))));
+        assertTrue(SortKey.isRowComparable(SortKey.parse(List.of("birthday,desc", "id,desc"))));
+        assertFalse(SortKey.isRowComparable(SortKey.parse(List.of("weight,asc", "id,asc"))));
+        assertFalse(SortKey.isRowComparable(SortKey.parse(List.of("height,desc", "id,asc"))));
+        assertFalse(SortKey.isRowComparable(SortKey.parse(List.of("id,asc"))));
+    }
+
+    @Test
+    void dropsRepeatedFieldsAndKeysAfterId() {
+        List<SortKey> sortKeys = SortKey.parse(List.of("name,asc", "height,desc", "NAME,desc", "name,desc",
+                "id,asc", "weight,asc"));
+
+        assertEquals("[name,asc, height,desc, id,asc]", sortKeys.toString());
+    }
+}
@@ -0,0 +1,80 @@
+package client;
+
+import java.util.Arrays;
+
+/**
+ * Таймаут вызова по наблюдаемой задержке: p99 последних ответов, умноженный на запас,
+ * в пределах [minMs, maxMs]. Пока выборка мала, действует maxMs.
+ * Сработавший таймаут учитывается как задержка, равная пределу (известно лишь, что ответ был бы не раньше):
+ * если центральный сервис стал медленнее текущего предела, предел растет к maxMs, а не остается прежним.
+ * Окно меньше MIN_SAMPLES расширяется до MIN_SAMPLES: иначе выборка никогда не набралась бы и предел застыл бы на maxMs.
+ */
+final class AdaptiveTimeout {
+
+    static final int MIN_SAMPLES = 50;
+    private static final int RECALCULATE_EVERY = 32;
+
+    private final long[] samples;
+    private final double multiplier;
+    private final long minMs;
+    private final long maxMs;
+
+    private int next;
+    private int count;
+    private int sinceRecalculation;
+
+    private volatile long currentMs;
+    private volatile long p50Ms;
+    private volatile long p99Ms;
+
+    AdaptiveTimeout(int windowSize, double multiplier, long minMs, long maxMs) {
+        this.samples = new long[Math.max(windowSize, MIN_SAMPLES)];
+        this.multiplier = multiplier;
+        this.minMs = minMs;
+        this.maxMs = maxMs;
+        this.currentMs = maxMs;
+    }
+
+    synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (++sinceRecalculation >= RECALCULATE_EVERY && count >= MIN_SAMPLES) {
+            sinceRecalculation = 0;
+            recalculate();
+        }
+    }
+
+    void recordTimeout(long timeoutMs) {
+        record(timeoutMs);
+    }
+
+    long currentMs() {
+        return currentMs;
+    }
+
+    long maxMs() {
+        return maxMs;
+    }
+
+    long p50Ms() {
+        return p50Ms;
+    }
+
+    long p99Ms() {
+        return p99Ms;
+    }
+
+    private void recalculate() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        p50Ms = percentile(sorted, 50);
+        p99Ms = percentile(sorted, 99);
+        currentMs = Math.max(minMs, Math.min(maxMs, (long) Math.ceil(p99Ms * multiplier)));
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
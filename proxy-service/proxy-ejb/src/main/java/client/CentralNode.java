@@ -0,0 +1,111 @@
+package client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Узел центрального сервиса для балансировщика: число запросов в полете
+ * и peak-EWMA задержки. Рост задержки принимается сразу, спад - с затуханием за DECAY_MS,
+ * поэтому узел после всплеска задержки постепенно снова получает запросы.
+ */
+final class CentralNode {
+
+    private static final double DECAY_NANOS = Long.getLong("central.client.balancer.decay-ms", 10_000L) * 1e6;
+    private static final double MIN_COST_NANOS = 1e6;
+
+    private final String baseUrl;
+    private final String healthUrl;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+
+    private volatile boolean healthy = true;
+    private double costNanos;
+    private long stamp = System.nanoTime();
+
+    CentralNode(String baseUrl, String healthUrl, long initialCostMs) {
+        this.baseUrl = baseUrl;
+        this.healthUrl = healthUrl;
+        this.costNanos = initialCostMs * 1e6;
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * null - узел не отдает отдельную проверку здоровья
+     */
+    String healthUrl() {
+        return healthUrl;
+    }
+
+    boolean isHealthy() {
+        return healthy;
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+        if (healthy) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * Ожидаемая стоимость нового запроса: задержка с учетом очереди на узле
+     */
+    synchronized double load() {
+        return Math.max(observe(0), MIN_COST_NANOS) * (outstanding.get() + 1);
+    }
+
+    void start() {
+        outstanding.incrementAndGet();
+        requests.incrementAndGet();
+    }
+
+    void succeeded(long latencyNanos) {
+        outstanding.decrementAndGet();
+        consecutiveFailures.set(0);
+        synchronized (this) {
+            observe(latencyNanos);
+        }
+    }
+
+    /**
+     * @return число ошибок подряд, включая эту
+     */
+    int failed() {
+        outstanding.decrementAndGet();
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    /**
+     * Отмененный запрос (в том числе по таймауту) длился не меньше elapsedNanos: это тоже замер задержки
+     */
+    void cancelled(long elapsedNanos) {
+        outstanding.decrementAndGet();
+        synchronized (this) {
+            observe(elapsedNanos);
+        }
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    synchronized long latencyMs() {
+        return (long) (observe(0) / 1e6);
+    }
+
+    private double observe(double latencyNanos) {
+        long now = System.nanoTime();
+        double weight = Math.exp(-(now - stamp) / DECAY_NANOS);
+        stamp = now;
+        costNanos = latencyNanos > costNanos ? latencyNanos : costNanos * weight + latencyNanos * (1 - weight);
+        return costNanos;
+    }
+}
@@ -0,0 +1,318 @@
+package client;
+
+import exceptions.ProxyServiceException;
+import lombok.extern.java.Log;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ws.rs.core.GenericType;
+import jakarta.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Клиентская балансировка между узлами central-service-spring без лишнего прыжка через HAProxy.
+ * Узлы берутся из каталога Consul (central.client.consul.url), а без него - из статического списка
+ * central.client.nodes: "baseUrl" или "baseUrl|healthUrl" через запятую, по умолчанию central.service.url.
+ * Выбор - из двух случайных здоровых узлов тот, у кого меньше peak-EWMA задержки с учетом очереди.
+ * Узел исключается, если не проходит /actuator/health или отвечает ошибкой EJECT_AFTER_FAILURES раз подряд,
+ * и возвращается после успешной проверки; узел без health-check - на следующем обновлении.
+ */
+@Singleton
+@Startup
+@DependsOn("CentralServiceClient")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@Log
+public class CentralServiceBalancer {
+
+    private static final String DEFAULT_URL =
+            System.getProperty("central.service.url", "http://localhost:18085/central-service/api");
+    private static final String STATIC_NODES = System.getProperty("central.client.nodes", DEFAULT_URL);
+    private static final String CONSUL_URL = System.getProperty("central.client.consul.url");
+    private static final String CONSUL_SERVICE = System.getProperty("central.client.consul.service", "central-service-spring");
+    private static final String NODE_SCHEME = System.getProperty("central.client.balancer.scheme", "https");
+    private static final String NODE_BASE_PATH = System.getProperty("central.client.balancer.base-path", "/central-service/api");
+    private static final long INITIAL_LATENCY_MS = Long.getLong("central.client.balancer.initial-latency-ms", 50L);
+    private static final int EJECT_AFTER_FAILURES = Integer.getInteger("central.client.balancer.eject-after-failures", 3);
+
+    private static final GenericType<List<Map<String, Object>>> CATALOG = new GenericType<List<Map<String, Object>>>() {};
+
+    @EJB
+    private CentralServiceClient centralServiceClient;
+
+    private final AtomicLong catalogRefreshes = new AtomicLong();
+    private final AtomicLong catalogFailures = new AtomicLong();
+    private final AtomicLong ejections = new AtomicLong();
+
+    private volatile List<CentralNode> nodes = Collections.emptyList();
+    private volatile boolean fromCatalog;
+
+    @PostConstruct
+    void init() {
+        nodes = merge(staticNodes());
+        refresh();
+        log.info("Central service balancer started with nodes: " + urls(nodes));
+    }
+
+    /**
+     * Блокирующий запрос к выбранному узлу; аргумент функции - базовый URL узла
+     */
+    public <T> T call(Function<String, T> request) {
+        CentralNode node = select();
+        node.start();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = request.apply(node.baseUrl());
+        } catch (RuntimeException e) {
+            onFailure(node, e, start);
+            throw e;
+        }
+        node.succeeded(System.nanoTime() - start);
+        return result;
+    }
+
+    public <T> CompletableFuture<T> callAsync(Function<String, CompletableFuture<T>> request) {
+        CentralNode node = select();
+        node.start();
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = request.apply(node.baseUrl());
+        } catch (RuntimeException e) {
+            onFailure(node, e, start);
+            throw e;
+        }
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                node.succeeded(System.nanoTime() - start);
+            } else {
+                onFailure(node, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error, start);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Обновляет список узлов из Consul и проверяет здоровье каждого узла
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/10", persistent = false)
+    void refresh() {
+        if (CONSUL_URL != null) {
+            try {
+                List<CentralNode> catalog = loadCatalog();
+                catalogRefreshes.incrementAndGet();
+                if (!catalog.isEmpty()) {
+                    nodes = merge(catalog);
+                    fromCatalog = true;
+                } else {
+                    log.warning("Consul catalog has no passing " + CONSUL_SERVICE + " instances, keeping "
+                            + urls(nodes));
+                }
+            } catch (RuntimeException e) {
+                catalogFailures.incrementAndGet();
+                log.log(Level.WARNING, "Consul catalog unavailable, keeping " + urls(nodes), e);
+            }
+        }
+        for (CentralNode node : nodes) {
+            checkHealth(node);
+        }
+    }
+
+    public Map<String, Long> statistics() {
+        List<CentralNode> current = nodes;
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("balancer.nodes", (long) current.size());
+        result.put("balancer.healthy", current.stream().filter(CentralNode::isHealthy).count());
+        result.put("balancer.from-catalog", fromCatalog ? 1L : 0L);
+        result.put("balancer.catalog-refreshes", catalogRefreshes.get());
+        result.put("balancer.catalog-failures", catalogFailures.get());
+        result.put("balancer.ejections", ejections.get());
+        for (CentralNode node : current) {
+            String prefix = "balancer.node[" + node.baseUrl() + "].";
+            result.put(prefix + "requests", node.requests());
+            result.put(prefix + "outstanding", (long) node.outstanding());
+            result.put(prefix + "latency-ms", node.latencyMs());
+            result.put(prefix + "healthy", node.isHealthy() ? 1L : 0L);
+        }
+        return result;
+    }
+
+    /**
+     * Если здоровых узлов не осталось, запрос все равно уходит на один из известных:
+     * лучше попытка, чем гарантированный отказ
+     */
+    private CentralNode select() {
+        List<CentralNode> current = nodes;
+        List<CentralNode> candidates = new ArrayList<>(current.size());
+        for (CentralNode node : current) {
+            if (node.isHealthy()) {
+                candidates.add(node);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates = current;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        CentralNode a = candidates.get(first);
+        CentralNode b = candidates.get(second);
+        return a.load() <= b.load() ? a : b;
+    }
+
+    private void onFailure(CentralNode node, Throwable error, long start) {
+        if (error instanceof CancellationException) {
+            node.cancelled(System.nanoTime() - start);
+            return;
+        }
+        if (error instanceof ProxyServiceException && ((ProxyServiceException) error).isClientError()) {
+            node.succeeded(System.nanoTime() - start);
+            return;
+        }
+        if (node.failed() >= EJECT_AFTER_FAILURES && node.isHealthy()) {
+            eject(node, "failed " + EJECT_AFTER_FAILURES + " requests in a row");
+        }
+    }
+
+    private void checkHealth(CentralNode node) {
+        if (node.healthUrl() == null) {
+            node.setHealthy(true);
+            return;
+        }
+        Response response = null;
+        try {
+            response = centralServiceClient.client().target(node.healthUrl()).request().get();
+            if (response.getStatus() == 200) {
+                if (!node.isHealthy()) {
+                    log.info("Central node " + node.baseUrl() + " is healthy again");
+                }
+                node.setHealthy(true);
+            } else if (node.isHealthy()) {
+                eject(node, "health check returned " + response.getStatus());
+            }
+        } catch (RuntimeException e) {
+            if (node.isHealthy()) {
+                eject(node, "health check failed: " + e.getMessage());
+            }
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    private void eject(CentralNode node, String reason) {
+        node.setHealthy(false);
+        ejections.incrementAndGet();
+        log.warning("Central node " + node.baseUrl() + " ejected: " + reason);
+    }
+
+    private List<CentralNode> loadCatalog() {
+        Response response = null;
+        try {
+            response = centralServiceClient.client()
+                    .target(CONSUL_URL)
+                    .path("/v1/health/service/{service}")
+                    .resolveTemplate("service", CONSUL_SERVICE)
+                    .queryParam("passing", true)
+                    .request()
+                    .get();
+            if (response.getStatus() != 200) {
+                throw new ProxyServiceException("Consul returned " + response.getStatus(), response.getStatus());
+            }
+            List<CentralNode> catalog = new ArrayList<>();
+            for (Map<String, Object> entry : response.readEntity(CATALOG)) {
+                catalog.add(toNode(entry));
+            }
+            return catalog;
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * Запись /v1/health/service: адрес сервиса, а если он пуст - адрес агента Consul;
+     * порт health-check берется из метаданных management-port, как в haproxy.ctmpl
+     */
+    @SuppressWarnings("unchecked")
+    private static CentralNode toNode(Map<String, Object> entry) {
+        Map<String, Object> service = (Map<String, Object>) entry.get("Service");
+        Map<String, Object> agent = (Map<String, Object>) entry.get("Node");
+        String address = (String) service.get("Address");
+        if (address == null || address.isEmpty()) {
+            address = (String) agent.get("Address");
+        }
+        Number port = (Number) service.get("Port");
+        Map<String, Object> meta = (Map<String, Object>) service.get("Meta");
+        Object managementPort = meta != null ? meta.get("management-port") : null;
+
+        String baseUrl = NODE_SCHEME + "://" + address + ":" + port + NODE_BASE_PATH;
+        String healthUrl = managementPort != null
+                ? "http://" + address + ":" + managementPort + "/actuator/health"
+                : null;
+        return new CentralNode(baseUrl, healthUrl, INITIAL_LATENCY_MS);
+    }
+
+    private static List<CentralNode> staticNodes() {
+        List<CentralNode> result = new ArrayList<>();
+        for (String node : STATIC_NODES.split(",")) {
+            if (node.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = node.trim().split("\\|", 2);
+            result.add(new CentralNode(parts[0], parts.length > 1 ? parts[1] : null, INITIAL_LATENCY_MS));
+        }
+        return result;
+    }
+
+    /**
+     * Сохраняет статистику узлов, которые остались в списке
+     */
+    private List<CentralNode> merge(List<CentralNode> fresh) {
+        Map<String, CentralNode> known = new LinkedHashMap<>();
+        for (CentralNode node : nodes) {
+            known.put(node.baseUrl(), node);
+        }
+        List<CentralNode> result = new ArrayList<>(fresh.size());
+        for (CentralNode node : fresh) {
+            CentralNode existing = known.get(node.baseUrl());
+            result.add(existing != null && Objects.equals(existing.healthUrl(), node.healthUrl()) ? existing : node);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static List<String> urls(List<CentralNode> nodes) {
+        List<String> result = new ArrayList<>(nodes.size());
+        for (CentralNode node : nodes) {
+            result.add(node.baseUrl());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,309 @@
+package client;
+
+import exceptions.ProxyServiceException;
+import lombok.extern.java.Log;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOSession;
+import org.apache.http.pool.PoolStats;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpAsyncClient4Engine;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClientEngine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.File;
+import java.io.FileInputStream;
+import java.security.KeyStore;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Общий JAX-RS клиент до центрального сервиса.
+ * Создается один раз на деплой: держит ограниченный пул keep-alive соединений,
+ * переиспользует TLS-сессии и пересоздается только при изменении truststore.
+ * Рядом с блокирующим клиентом живет неблокирующий (NIO) для async()-вызовов:
+ * сам HTTP-обмен не занимает поток на время ожидания ответа медленного узла.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@Log
+public class CentralServiceClient {
+
+    private static final String TRUSTSTORE_PATH = System.getProperty("jboss.server.config.dir") + "/proxy-truststore.p12";
+    private static final String TRUSTSTORE_PASSWORD = "changeit";
+
+    private static final int POOL_MAX_TOTAL = Integer.getInteger("central.client.pool.max-total", 50);
+    private static final int POOL_MAX_PER_ROUTE = Integer.getInteger("central.client.pool.max-per-route", 50);
+    private static final long KEEP_ALIVE_MS = Long.getLong("central.client.keep-alive-ms", 30_000L);
+    private static final int TLS_SESSION_CACHE_SIZE = Integer.getInteger("central.client.tls.session-cache-size", 100);
+    private static final int TLS_SESSION_TIMEOUT_SECONDS = Integer.getInteger("central.client.tls.session-timeout-seconds", 3600);
+    private static final int CONNECT_TIMEOUT_MS = Integer.getInteger("central.client.connect-timeout-ms", 2_000);
+    private static final int READ_TIMEOUT_MS = Integer.getInteger("central.client.read-timeout-ms", 10_000);
+    private static final int LEASE_TIMEOUT_MS = Integer.getInteger("central.client.pool.lease-timeout-ms", 2_000);
+    private static final int IO_THREADS = Integer.getInteger("central.client.io-threads", 2);
+
+    private static final ThreadLocal<Integer> READ_TIMEOUT_OVERRIDE = new ThreadLocal<>();
+
+    private final AtomicLong handshakes = new AtomicLong();
+    private final AtomicLong truststoreReloads = new AtomicLong();
+
+    private volatile PooledClient current;
+    private volatile PooledClient retired;
+
+    @PostConstruct
+    void init() {
+        current = createPooledClient();
+        log.info("Central service client created, pool max total: " + POOL_MAX_TOTAL);
+    }
+
+    @PreDestroy
+    void destroy() {
+        close(retired);
+        close(current);
+    }
+
+    public Client client() {
+        return current.client;
+    }
+
+    public Client asyncClient() {
+        return current.asyncClient;
+    }
+
+    /**
+     * Выполняет блокирующие запросы request с таймаутом чтения readTimeoutMs вместо central.client.read-timeout-ms.
+     * Блокирующий клиент выполняет запрос в потоке вызывающего, поэтому предел передается через ThreadLocal
+     */
+    public static <T> T withReadTimeout(long readTimeoutMs, Supplier<T> request) {
+        Integer previous = READ_TIMEOUT_OVERRIDE.get();
+        READ_TIMEOUT_OVERRIDE.set((int) Math.min(readTimeoutMs, Integer.MAX_VALUE));
+        try {
+            return request.get();
+        } finally {
+            if (previous == null) {
+                READ_TIMEOUT_OVERRIDE.remove();
+            } else {
+                READ_TIMEOUT_OVERRIDE.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Закрывает простаивающие соединения и пересоздает клиент, если файл truststore изменился.
+     * Старый клиент закрывается на следующем срабатывании, чтобы не оборвать запросы в полете.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/30", persistent = false)
+    void maintain() {
+        close(retired);
+        retired = null;
+
+        PooledClient active = current;
+        active.connectionManager.closeExpiredConnections();
+        active.connectionManager.closeIdleConnections(KEEP_ALIVE_MS, TimeUnit.MILLISECONDS);
+        active.asyncConnectionManager.closeExpiredConnections();
+        active.asyncConnectionManager.closeIdleConnections(KEEP_ALIVE_MS, TimeUnit.MILLISECONDS);
+
+        File truststore = new File(TRUSTSTORE_PATH);
+        if (truststore.lastModified() == active.truststoreLastModified) {
+            return;
+        }
+
+        try {
+            current = createPooledClient();
+            retired = active;
+            truststoreReloads.incrementAndGet();
+            log.info("Truststore changed, central service client recreated");
+        } catch (ProxyServiceException e) {
+            log.log(Level.SEVERE, "Failed to reload truststore, keeping previous client", e);
+        }
+    }
+
+    public Map<String, Long> statistics() {
+        PoolStats stats = current.connectionManager.getTotalStats();
+        PoolStats asyncStats = current.asyncConnectionManager.getTotalStats();
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("pool.leased", (long) stats.getLeased());
+        result.put("pool.available", (long) stats.getAvailable());
+        result.put("pool.pending", (long) stats.getPending());
+        result.put("pool.max", (long) stats.getMax());
+        result.put("async.pool.leased", (long) asyncStats.getLeased());
+        result.put("async.pool.available", (long) asyncStats.getAvailable());
+        result.put("async.pool.pending", (long) asyncStats.getPending());
+        result.put("tls.handshakes", handshakes.get());
+        result.put("truststore.reloads", truststoreReloads.get());
+        return result;
+    }
+
+    private PooledClient createPooledClient() {
+        try {
+            File truststoreFile = new File(TRUSTSTORE_PATH);
+            long lastModified = truststoreFile.lastModified();
+
+            KeyStore trustStore = KeyStore.getInstance("PKCS12");
+            try (FileInputStream fis = new FileInputStream(truststoreFile)) {
+                trustStore.load(fis, TRUSTSTORE_PASSWORD.toCharArray());
+            }
+
+            TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            tmf.init(trustStore);
+
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, tmf.getTrustManagers(), null);
+            sslContext.getClientSessionContext().setSessionCacheSize(TLS_SESSION_CACHE_SIZE);
+            sslContext.getClientSessionContext().setSessionTimeout(TLS_SESSION_TIMEOUT_SECONDS);
+
+            SSLConnectionSocketFactory sslSocketFactory =
+                    new SSLConnectionSocketFactory(sslContext, NoopHostnameVerifier.INSTANCE) {
+                        @Override
+                        protected void prepareSocket(SSLSocket socket) {
+                            socket.addHandshakeCompletedListener(event -> handshakes.incrementAndGet());
+                        }
+                    };
+
+            Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", sslSocketFactory)
+                    .build();
+
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                    registry, null, null, null, KEEP_ALIVE_MS, TimeUnit.MILLISECONDS);
+            connectionManager.setMaxTotal(POOL_MAX_TOTAL);
+            connectionManager.setDefaultMaxPerRoute(POOL_MAX_PER_ROUTE);
+            connectionManager.setValidateAfterInactivity(2_000);
+
+            RequestConfig requestConfig = RequestConfig.custom()
+                    .setConnectTimeout(CONNECT_TIMEOUT_MS)
+                    .setSocketTimeout(READ_TIMEOUT_MS)
+                    .setConnectionRequestTimeout(LEASE_TIMEOUT_MS)
+                    .build();
+
+            // RESTEasy задает RequestConfig запроса сам, а сокет настраивается по конфигурации из контекста
+            // уже после перехватчиков, поэтому предел withReadTimeout подставляется здесь
+            HttpRequestInterceptor readTimeoutOverride = (request, context) -> {
+                Integer readTimeoutMs = READ_TIMEOUT_OVERRIDE.get();
+                if (readTimeoutMs != null) {
+                    HttpClientContext clientContext = HttpClientContext.adapt(context);
+                    clientContext.setRequestConfig(RequestConfig.copy(clientContext.getRequestConfig())
+                            .setSocketTimeout(readTimeoutMs)
+                            .build());
+                }
+            };
+
+            CloseableHttpClient httpClient = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(requestConfig)
+                    .addInterceptorLast(readTimeoutOverride)
+                    .disableConnectionState()
+                    .build();
+
+            Client client = ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+                    .httpEngine(ApacheHttpClientEngine.create(httpClient, true))
+                    .build();
+
+            SSLIOSessionStrategy sslSessionStrategy =
+                    new SSLIOSessionStrategy(sslContext, NoopHostnameVerifier.INSTANCE) {
+                        @Override
+                        protected void verifySession(HttpHost host, IOSession ioSession, SSLSession session)
+                                throws SSLException {
+                            handshakes.incrementAndGet();
+                            super.verifySession(host, ioSession, session);
+                        }
+                    };
+
+            Registry<SchemeIOSessionStrategy> asyncRegistry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                    .register("http", NoopIOSessionStrategy.INSTANCE)
+                    .register("https", sslSessionStrategy)
+                    .build();
+
+            DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(IOReactorConfig.custom()
+                    .setIoThreadCount(IO_THREADS)
+                    .setConnectTimeout(CONNECT_TIMEOUT_MS)
+                    .setSoTimeout(READ_TIMEOUT_MS)
+                    .build());
+
+            PoolingNHttpClientConnectionManager asyncConnectionManager = new PoolingNHttpClientConnectionManager(
+                    ioReactor, null, asyncRegistry, null, null, KEEP_ALIVE_MS, TimeUnit.MILLISECONDS);
+            asyncConnectionManager.setMaxTotal(POOL_MAX_TOTAL);
+            asyncConnectionManager.setDefaultMaxPerRoute(POOL_MAX_PER_ROUTE);
+
+            CloseableHttpAsyncClient httpAsyncClient = HttpAsyncClients.custom()
+                    .setConnectionManager(asyncConnectionManager)
+                    .setDefaultRequestConfig(requestConfig)
+                    .disableConnectionState()
+                    .build();
+            httpAsyncClient.start();
+
+            Client asyncClient = ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+                    .httpEngine(new ApacheHttpAsyncClient4Engine(httpAsyncClient, true))
+                    .build();
+
+            return new PooledClient(client, connectionManager, asyncClient, asyncConnectionManager, lastModified);
+        } catch (Exception e) {
+            log.log(Level.SEVERE, "Error creating secure client", e);
+            throw new ProxyServiceException("Failed to create secure client", e);
+        }
+    }
+
+    private void close(PooledClient pooledClient) {
+        if (pooledClient != null) {
+            pooledClient.client.close();
+            pooledClient.asyncClient.close();
+        }
+    }
+
+    private static final class PooledClient {
+        private final Client client;
+        private final PoolingHttpClientConnectionManager connectionManager;
+        private final Client asyncClient;
+        private final PoolingNHttpClientConnectionManager asyncConnectionManager;
+        private final long truststoreLastModified;
+
+        private PooledClient(Client client, PoolingHttpClientConnectionManager connectionManager,
+                             Client asyncClient, PoolingNHttpClientConnectionManager asyncConnectionManager,
+                             long truststoreLastModified) {
+            this.client = client;
+            this.connectionManager = connectionManager;
+            this.asyncClient = asyncClient;
+            this.asyncConnectionManager = asyncConnectionManager;
+            this.truststoreLastModified = truststoreLastModified;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package client;
+
+import exceptions.ProxyServiceException;
+import lombok.extern.java.Log;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import java.net.SocketTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Защита вызовов центрального сервиса: circuit breaker, ограничение одновременных вызовов (bulkhead)
+ * и таймаут по наблюдаемой задержке. При отказе можно вернуть последний успешный ответ
+ * (central.client.fallback.enabled). Ответы 4xx - ошибка запроса, а не отказ сервиса, и цепь не размыкают.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@Log
+public class CentralServiceGuard {
+
+    private static final int BULKHEAD_MAX_CONCURRENT = Integer.getInteger("central.client.bulkhead.max-concurrent", 50);
+    private static final int BREAKER_WINDOW = Integer.getInteger("central.client.breaker.window", 20);
+    private static final int BREAKER_MINIMUM_CALLS = Integer.getInteger("central.client.breaker.minimum-calls", 10);
+    private static final int BREAKER_FAILURE_RATE = Integer.getInteger("central.client.breaker.failure-rate-percent", 50);
+    private static final long BREAKER_OPEN_MS = Long.getLong("central.client.breaker.open-ms", 10_000L);
+    private static final int BREAKER_PROBES = Integer.getInteger("central.client.breaker.half-open-probes", 3);
+    private static final int LATENCY_WINDOW = Integer.getInteger("central.client.timeout.window", 512);
+    private static final double TIMEOUT_MULTIPLIER =
+            Double.parseDouble(System.getProperty("central.client.timeout.p99-multiplier", "3"));
+    private static final long TIMEOUT_MIN_MS = Long.getLong("central.client.timeout.min-ms", 250L);
+    private static final long TIMEOUT_MAX_MS = Long.getLong("central.client.read-timeout-ms", 10_000L);
+    private static final boolean FALLBACK_ENABLED = Boolean.getBoolean("central.client.fallback.enabled");
+    private static final int FALLBACK_MAX_ENTRIES = Integer.getInteger("central.client.fallback.max-entries", 1_000);
+
+    private final Semaphore bulkhead = new Semaphore(BULKHEAD_MAX_CONCURRENT);
+    private final CircuitBreaker breaker = new CircuitBreaker(BREAKER_WINDOW, BREAKER_MINIMUM_CALLS,
+            BREAKER_FAILURE_RATE, BREAKER_OPEN_MS, BREAKER_PROBES);
+    private final AdaptiveTimeout timeout = new AdaptiveTimeout(LATENCY_WINDOW, TIMEOUT_MULTIPLIER,
+            TIMEOUT_MIN_MS, TIMEOUT_MAX_MS);
+    private final Map<String, Object> lastKnownGood = new ConcurrentHashMap<>();
+
+    private final AtomicLong breakerRejections = new AtomicLong();
+    private final AtomicLong bulkheadRejections = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    private ScheduledThreadPoolExecutor timer;
+
+    @PostConstruct
+    void init() {
+        timer = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "central-service-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    void destroy() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Неблокирующий вызов: future завершается ответом, ошибкой, таймаутом
+     * или сразу отказом, если цепь разомкнута или bulkhead заполнен
+     */
+    public <T> CompletableFuture<T> call(String key, Supplier<CompletableFuture<T>> request) {
+        Boolean probe = breaker.tryAcquire();
+        if (probe == null) {
+            breakerRejections.incrementAndGet();
+            return fallback(key, new ProxyServiceException("Central service circuit breaker is open"));
+        }
+        if (!bulkhead.tryAcquire()) {
+            breaker.release(probe);
+            bulkheadRejections.incrementAndGet();
+            return fallback(key, new ProxyServiceException("Too many concurrent calls to central service"));
+        }
+
+        // Пробный вызов в HALF_OPEN ждет до предела чтения: иначе после роста задержки центрального
+        // сервиса пробы получали бы тот же устаревший короткий таймаут и цепь никогда бы не замкнулась
+        long timeoutMs = probe ? timeout.maxMs() : timeout.currentMs();
+        long start = System.nanoTime();
+        CompletableFuture<T> upstream;
+        try {
+            upstream = request.get();
+        } catch (RuntimeException e) {
+            upstream = new CompletableFuture<>();
+            upstream.completeExceptionally(e);
+        }
+
+        // RESTEasy не прерывает HTTP-обмен при отмене future, поэтому upstream не отменяется:
+        // разрешение bulkhead держится, пока обмен действительно идет (до ответа или таймаута чтения),
+        // а поздний результат просто отбрасывается
+        CompletableFuture<T> attempt = new CompletableFuture<>();
+        ScheduledFuture<?> deadline = timer.schedule(() -> {
+            if (attempt.completeExceptionally(new ProxyServiceException(
+                    "Central service did not respond within " + timeoutMs + " ms"))) {
+                timeouts.incrementAndGet();
+                timeout.recordTimeout(timeoutMs);
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        upstream.whenComplete((value, error) -> {
+            bulkhead.release();
+            deadline.cancel(false);
+            if (error == null) {
+                attempt.complete(value);
+            } else {
+                attempt.completeExceptionally(unwrap(error));
+            }
+        });
+
+        CompletableFuture<T> result = attempt.<CompletableFuture<T>>handle((value, error) -> {
+            if (error == null) {
+                onSuccess(key, value, probe, start);
+                return CompletableFuture.completedFuture(value);
+            }
+            Throwable cause = unwrap(error);
+            if (cause instanceof CancellationException) {
+                breaker.release(probe);
+                return failed(cause);
+            }
+            if (isClientError(cause)) {
+                breaker.onSuccess(probe);
+                return failed(cause);
+            }
+            breaker.onFailure(probe);
+            return fallback(key, cause);
+        }).thenCompose(future -> future);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                attempt.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Блокирующий вызов в потоке вызывающего: адаптивный предел становится таймаутом чтения
+     * блокирующего клиента (CentralServiceClient.withReadTimeout), истечение учитывается как в call
+     */
+    public <T> T callSync(String key, Supplier<T> request) {
+        Boolean probe = breaker.tryAcquire();
+        if (probe == null) {
+            breakerRejections.incrementAndGet();
+            return fallbackValue(key, new ProxyServiceException("Central service circuit breaker is open"));
+        }
+        if (!bulkhead.tryAcquire()) {
+            breaker.release(probe);
+            bulkheadRejections.incrementAndGet();
+            return fallbackValue(key, new ProxyServiceException("Too many concurrent calls to central service"));
+        }
+
+        long timeoutMs = probe ? timeout.maxMs() : timeout.currentMs();
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = CentralServiceClient.withReadTimeout(timeoutMs, request);
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            if (isReadTimeout(e)) {
+                timeouts.incrementAndGet();
+                timeout.recordTimeout(timeoutMs);
+            }
+            if (isClientError(e)) {
+                breaker.onSuccess(probe);
+                throw e;
+            }
+            breaker.onFailure(probe);
+            return fallbackValue(key, e);
+        }
+        bulkhead.release();
+        onSuccess(key, value, probe, start);
+        return value;
+    }
+
+    public Map<String, Long> statistics() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("breaker.state", (long) breaker.state().ordinal());
+        result.put("breaker.opened", breaker.openedCount());
+        result.put("breaker.half-opened", breaker.halfOpenedCount());
+        result.put("breaker.closed", breaker.closedCount());
+        result.put("breaker.rejected", breakerRejections.get());
+        result.put("bulkhead.in-flight", (long) (BULKHEAD_MAX_CONCURRENT - bulkhead.availablePermits()));
+        result.put("bulkhead.rejected", bulkheadRejections.get());
+        result.put("timeout.current-ms", timeout.currentMs());
+        result.put("timeout.expired", timeouts.get());
+        result.put("latency.p50-ms", timeout.p50Ms());
+        result.put("latency.p99-ms", timeout.p99Ms());
+        result.put("fallback.served", fallbacks.get());
+        return result;
+    }
+
+    private void onSuccess(String key, Object value, boolean probe, long start) {
+        timeout.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        breaker.onSuccess(probe);
+        if (FALLBACK_ENABLED && value != null
+                && (lastKnownGood.size() < FALLBACK_MAX_ENTRIES || lastKnownGood.containsKey(key))) {
+            lastKnownGood.put(key, value);
+        }
+    }
+
+    private <T> CompletableFuture<T> fallback(String key, Throwable error) {
+        try {
+            return CompletableFuture.completedFuture(this.<T>fallbackValue(key, error));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T fallbackValue(String key, Throwable error) {
+        Object value = FALLBACK_ENABLED ? lastKnownGood.get(key) : null;
+        if (value != null) {
+            fallbacks.incrementAndGet();
+            log.warning("Serving last known good value for " + key + ": " + error.getMessage());
+            return (T) value;
+        }
+        if (error instanceof ProxyServiceException) {
+            throw (ProxyServiceException) error;
+        }
+        throw new ProxyServiceException("Error in proxy request", error);
+    }
+
+    private static boolean isClientError(Throwable error) {
+        return error instanceof ProxyServiceException && ((ProxyServiceException) error).isClientError();
+    }
+
+    private static boolean isReadTimeout(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable error) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,152 @@
+package client;
+
+import lombok.extern.java.Log;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Автомат CLOSED -> OPEN -> HALF_OPEN по доле ошибок в скользящем окне последних вызовов.
+ * После OPEN_MS в открытом состоянии пропускается не больше probes пробных вызовов:
+ * все успешны - цепь замыкается, любая ошибка снова ее размыкает.
+ */
+@Log
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long openMs;
+    private final int probes;
+
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong halfOpened = new AtomicLong();
+    private final AtomicLong closed = new AtomicLong();
+
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, long openMs, int probes) {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.openMs = openMs;
+        this.probes = probes;
+    }
+
+    /**
+     * Разрешение на вызов: null - цепь разомкнута, иначе признак пробного вызова,
+     * который надо вернуть в onSuccess/onFailure/release
+     */
+    synchronized Boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMs) {
+                return null;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probeSuccesses >= probes) {
+                return null;
+            }
+            probesInFlight++;
+            return Boolean.TRUE;
+        }
+        return Boolean.FALSE;
+    }
+
+    synchronized void onSuccess(boolean probe) {
+        if (probe) {
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            probesInFlight--;
+            if (++probeSuccesses >= probes) {
+                transition(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure(boolean probe) {
+        if (probe) {
+            if (state == State.HALF_OPEN) {
+                transition(State.OPEN);
+            }
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (calls >= minimumCalls && failures * 100 >= failureRatePercent * calls) {
+                transition(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Вызов не состоялся или был отменен: исход не учитывается
+     */
+    synchronized void release(boolean probe) {
+        if (probe && state == State.HALF_OPEN) {
+            probesInFlight--;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    long openedCount() {
+        return opened.get();
+    }
+
+    long halfOpenedCount() {
+        return halfOpened.get();
+    }
+
+    long closedCount() {
+        return closed.get();
+    }
+
+    private void record(boolean failure) {
+        if (calls == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void transition(State target) {
+        log.warning("Central service circuit breaker: " + state + " -> " + target);
+        state = target;
+        switch (target) {
+            case OPEN:
+                openedAt = System.currentTimeMillis();
+                opened.incrementAndGet();
+                break;
+            case HALF_OPEN:
+                probesInFlight = 0;
+                probeSuccesses = 0;
+                halfOpened.incrementAndGet();
+                break;
+            default:
+                next = 0;
+                calls = 0;
+                failures = 0;
+                closed.incrementAndGet();
+                break;
+        }
+    }
+}
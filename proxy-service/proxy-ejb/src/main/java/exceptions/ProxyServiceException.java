@@ -5,11 +5,33 @@ import jakarta.ejb.ApplicationException;
 @ApplicationException(rollback = true)
 public class ProxyServiceException extends RuntimeException {
 
+    private final int status;
+
     public ProxyServiceException(String message) {
+        this(message, 0);
+    }
+
+    public ProxyServiceException(String message, int status) {
         super(message);
+        this.status = status;
     }
 
     public ProxyServiceException(String message, Throwable cause) {
         super(message, cause);
+        this.status = 0;
+    }
+
+    /**
+     * HTTP-статус ответа центрального сервиса, 0 - ответа не было
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Ответ 4xx: ошибка запроса, а не отказ центрального сервиса
+     */
+    public boolean isClientError() {
+        return status >= 400 && status < 500;
     }
 }
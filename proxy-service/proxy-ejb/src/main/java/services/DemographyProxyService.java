@@ -2,6 +2,10 @@ package services;
 
 import jakarta.ejb.Remote;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
 @Remote
 public interface DemographyProxyService {
 
@@ -9,4 +13,22 @@ public interface DemographyProxyService {
 
     Double getPercentageByNationalityAndEyeColor(String nationality, String eyeColor);
 
+    Map<String, Double> getEyeColorDistribution(String nationality);
+
+    Map<String, Long> getCountsByHairColors(Set<String> hairColors);
+
+    Map<String, Map<String, Double>> getPercentageMatrix(Set<String> nationalities, Set<String> eyeColors);
+
+    Future<Long> getCountByHairColorAsync(String hairColor);
+
+    Future<Double> getPercentageByNationalityAndEyeColorAsync(String nationality, String eyeColor);
+
+    Future<Map<String, Double>> getEyeColorDistributionAsync(String nationality);
+
+    Future<Map<String, Long>> getCountsByHairColorsAsync(Set<String> hairColors);
+
+    Future<Map<String, Map<String, Double>>> getPercentageMatrixAsync(Set<String> nationalities, Set<String> eyeColors);
+
+    Map<String, Long> getClientStatistics();
+
 }
@@ -1,19 +1,31 @@
 package services.impl;
 
+import client.CentralServiceBalancer;
+import client.CentralServiceClient;
+import client.CentralServiceGuard;
 import exceptions.ProxyServiceException;
 import lombok.extern.java.Log;
 import org.jboss.ejb3.annotation.Pool;
 import services.DemographyProxyService;
 
+import jakarta.ejb.Asynchronous;
+import jakarta.ejb.EJB;
 import jakarta.ejb.Stateless;
-import javax.net.ssl.HostnameVerifier;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManagerFactory;
-import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.GenericType;
 import jakarta.ws.rs.core.Response;
-import java.io.FileInputStream;
-import java.security.KeyStore;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.logging.Level;
 
 @Stateless
@@ -21,44 +33,62 @@ import java.util.logging.Level;
 @Log
 public class DemographyProxyServiceImpl implements DemographyProxyService {
 
-    private static final String CENTRAL_SERVICE_URL = "http://localhost:18085/central-service/api";
-    private static final String TRUSTSTORE_PATH = System.getProperty("jboss.server.config.dir") + "/proxy-truststore.p12";
-    private static final String TRUSTSTORE_PASSWORD = "changeit";
+    private static final long BATCH_TIMEOUT_MS = Long.getLong("central.client.batch.timeout-ms", 10_000L);
 
-    private Client createSecureClient() {
-        try {
-            KeyStore trustStore = KeyStore.getInstance("PKCS12");
-            try (FileInputStream fis = new FileInputStream(TRUSTSTORE_PATH)) {
-                trustStore.load(fis, TRUSTSTORE_PASSWORD.toCharArray());
-            }
+    private static final GenericType<Long> LONG = new GenericType<Long>(Long.class);
+    private static final GenericType<Double> DOUBLE = new GenericType<Double>(Double.class);
+    private static final GenericType<Map<String, Double>> DISTRIBUTION = new GenericType<Map<String, Double>>() {};
 
-            TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-            tmf.init(trustStore);
-            
-            SSLContext sslContext = SSLContext.getInstance("TLS");
-            sslContext.init(null, tmf.getTrustManagers(), null);
+    @EJB
+    private CentralServiceClient centralServiceClient;
 
-            HostnameVerifier allHostsValid = (hostname, session) -> true;
+    @EJB
+    private CentralServiceGuard centralServiceGuard;
 
-            return ClientBuilder.newBuilder()
-                    .sslContext(sslContext)
-                    .hostnameVerifier(allHostsValid)
-                    .build();
+    @EJB
+    private CentralServiceBalancer centralServiceBalancer;
 
-        } catch (Exception e) {
-            log.log(Level.SEVERE, "Error creating secure client", e);
-            throw new ProxyServiceException("Failed to create secure client", e);
-        }
+    @Override
+    public Long getCountByHairColor(String hairColor) {
+        return centralServiceGuard.callSync(
+                key("/demography/hair-color/{hairColor}", Collections.singletonMap("hairColor", hairColor)),
+                () -> centralServiceBalancer.call(baseUrl -> requestCountByHairColor(baseUrl, hairColor)));
     }
 
     @Override
-    public Long getCountByHairColor(String hairColor) {
-        log.info("Proxy request: Getting count by hair color: " + hairColor);
+    public Double getPercentageByNationalityAndEyeColor(String nationality, String eyeColor) {
+        Map<String, Object> templates = new HashMap<>();
+        templates.put("nationality", nationality);
+        templates.put("eyeColor", eyeColor);
+        return centralServiceGuard.callSync(
+                key("/demography/nationality/{nationality}/eye-color/{eyeColor}/percentage", templates),
+                () -> centralServiceBalancer.call(
+                        baseUrl -> requestPercentageByNationalityAndEyeColor(baseUrl, nationality, eyeColor)));
+    }
+
+    @Override
+    public Map<String, Double> getEyeColorDistribution(String nationality) {
+        return centralServiceGuard.callSync(
+                key("/demography/nationality/{nationality}/eye-color/distribution",
+                        Collections.singletonMap("nationality", nationality)),
+                () -> centralServiceBalancer.call(baseUrl -> requestEyeColorDistribution(baseUrl, nationality)));
+    }
+
+    @Override
+    public Map<String, Long> getCountsByHairColors(Set<String> hairColors) {
+        return await(countsByHairColors(hairColors));
+    }
 
-        Client client = createSecureClient();
+    @Override
+    public Map<String, Map<String, Double>> getPercentageMatrix(Set<String> nationalities, Set<String> eyeColors) {
+        return await(percentageMatrix(nationalities, eyeColors));
+    }
+
+    private Long requestCountByHairColor(String baseUrl, String hairColor) {
+        Response response = null;
         try {
-            Response response = client
-                    .target(CENTRAL_SERVICE_URL)
+            response = centralServiceClient.client()
+                    .target(baseUrl)
                     .path("/demography/hair-color/{hairColor}")
                     .resolveTemplate("hairColor", hairColor)
                     .request()
@@ -66,11 +96,14 @@ public class DemographyProxyServiceImpl implements DemographyProxyService {
 
             if (response.getStatus() == 200) {
                 Long result = response.readEntity(Long.class);
-                log.info("Proxy response: Count for hair color " + hairColor + " is " + result);
+                if (log.isLoggable(Level.FINE)) {
+                    log.fine("Proxy response: Count for hair color " + hairColor + " is " + result);
+                }
                 return result;
             } else {
                 log.warning("Error response status: " + response.getStatus());
-                throw new ProxyServiceException("Error calling central service: " + response.getStatus());
+                throw new ProxyServiceException("Error calling central service: " + response.getStatus(),
+                        response.getStatus());
             }
         } catch (ProxyServiceException e) {
             throw e;
@@ -78,18 +111,17 @@ public class DemographyProxyServiceImpl implements DemographyProxyService {
             log.log(Level.SEVERE, "Error in proxy request for hair color " + hairColor, e);
             throw new ProxyServiceException("Error in proxy request", e);
         } finally {
-            client.close();
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
-    @Override
-    public Double getPercentageByNationalityAndEyeColor(String nationality, String eyeColor) {
-        log.info("Proxy request: Getting percentage by nationality: " + nationality + " and eye color: " + eyeColor);
-
-        Client client = createSecureClient();
+    private Double requestPercentageByNationalityAndEyeColor(String baseUrl, String nationality, String eyeColor) {
+        Response response = null;
         try {
-            Response response = client
-                    .target(CENTRAL_SERVICE_URL)
+            response = centralServiceClient.client()
+                    .target(baseUrl)
                     .path("/demography/nationality/{nationality}/eye-color/{eyeColor}/percentage")
                     .resolveTemplate("nationality", nationality)
                     .resolveTemplate("eyeColor", eyeColor)
@@ -98,12 +130,15 @@ public class DemographyProxyServiceImpl implements DemographyProxyService {
 
             if (response.getStatus() == 200) {
                 Double result = response.readEntity(Double.class);
-                log.info("Proxy response: Percentage for nationality " + nationality + 
-                        " and eye color " + eyeColor + " is " + result + "%");
+                if (log.isLoggable(Level.FINE)) {
+                    log.fine("Proxy response: Percentage for nationality " + nationality + 
+                            " and eye color " + eyeColor + " is " + result + "%");
+                }
                 return result;
             } else {
                 log.warning("Error response status: " + response.getStatus());
-                throw new ProxyServiceException("Error calling central service: " + response.getStatus());
+                throw new ProxyServiceException("Error calling central service: " + response.getStatus(),
+                        response.getStatus());
             }
         } catch (ProxyServiceException e) {
             throw e;
@@ -112,7 +147,238 @@ public class DemographyProxyServiceImpl implements DemographyProxyService {
                     " and eye color " + eyeColor, e);
             throw new ProxyServiceException("Error in proxy request", e);
         } finally {
-            client.close();
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    private Map<String, Double> requestEyeColorDistribution(String baseUrl, String nationality) {
+        Response response = null;
+        try {
+            response = centralServiceClient.client()
+                    .target(baseUrl)
+                    .path("/demography/nationality/{nationality}/eye-color/distribution")
+                    .resolveTemplate("nationality", nationality)
+                    .request()
+                    .get();
+
+            if (response.getStatus() == 200) {
+                Map<String, Double> result = new LinkedHashMap<>(
+                        response.readEntity(new GenericType<Map<String, Double>>() {}));
+                if (log.isLoggable(Level.FINE)) {
+                    log.fine("Proxy response: Eye color distribution for nationality " + nationality + " is " + result);
+                }
+                return result;
+            } else {
+                log.warning("Error response status: " + response.getStatus());
+                throw new ProxyServiceException("Error calling central service: " + response.getStatus(),
+                        response.getStatus());
+            }
+        } catch (ProxyServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            log.log(Level.SEVERE, "Error in proxy request for eye color distribution of " + nationality, e);
+            throw new ProxyServiceException("Error in proxy request", e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    @Asynchronous
+    @Override
+    public Future<Long> getCountByHairColorAsync(String hairColor) {
+        return fetch("/demography/hair-color/{hairColor}",
+                Collections.singletonMap("hairColor", hairColor), LONG);
+    }
+
+    @Asynchronous
+    @Override
+    public Future<Double> getPercentageByNationalityAndEyeColorAsync(String nationality, String eyeColor) {
+        Map<String, Object> templates = new HashMap<>();
+        templates.put("nationality", nationality);
+        templates.put("eyeColor", eyeColor);
+        return fetch("/demography/nationality/{nationality}/eye-color/{eyeColor}/percentage", templates, DOUBLE);
+    }
+
+    @Asynchronous
+    @Override
+    public Future<Map<String, Double>> getEyeColorDistributionAsync(String nationality) {
+        return eyeColorDistribution(nationality);
+    }
+
+    @Asynchronous
+    @Override
+    public Future<Map<String, Long>> getCountsByHairColorsAsync(Set<String> hairColors) {
+        return countsByHairColors(hairColors);
+    }
+
+    @Asynchronous
+    @Override
+    public Future<Map<String, Map<String, Double>>> getPercentageMatrixAsync(Set<String> nationalities,
+                                                                              Set<String> eyeColors) {
+        return percentageMatrix(nationalities, eyeColors);
+    }
+
+    @Override
+    public Map<String, Long> getClientStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>(centralServiceClient.statistics());
+        statistics.putAll(centralServiceGuard.statistics());
+        statistics.putAll(centralServiceBalancer.statistics());
+        return statistics;
+    }
+
+    private CompletableFuture<Map<String, Long>> countsByHairColors(Set<String> hairColors) {
+        return fanOut(hairColors, hairColor -> fetch("/demography/hair-color/{hairColor}",
+                Collections.singletonMap("hairColor", hairColor), LONG));
+    }
+
+    /**
+     * Матрица процентов страна -> цвет глаз: на каждую страну один запрос распределения,
+     * запросы выполняются параллельно. Пустой или null eyeColors - все цвета глаз.
+     */
+    private CompletableFuture<Map<String, Map<String, Double>>> percentageMatrix(Set<String> nationalities,
+                                                                                  Set<String> eyeColors) {
+        return fanOut(nationalities, nationality -> eyeColorDistribution(nationality).thenApply(distribution -> {
+            if (eyeColors == null || eyeColors.isEmpty()) {
+                return distribution;
+            }
+            Map<String, Double> row = new LinkedHashMap<>();
+            for (String eyeColor : eyeColors) {
+                row.put(eyeColor, distribution.get(eyeColor.toUpperCase()));
+            }
+            return row;
+        }));
+    }
+
+    private CompletableFuture<Map<String, Double>> eyeColorDistribution(String nationality) {
+        return fetch("/demography/nationality/{nationality}/eye-color/distribution",
+                Collections.singletonMap("nationality", nationality), DISTRIBUTION)
+                .thenApply(LinkedHashMap::new);
+    }
+
+    /**
+     * Неблокирующий GET через rx()-вызов NIO-клиента: future завершается из I/O-потока.
+     * Но результат @Asynchronous-метода WildFly получает через get() в потоке пула ejb3 async,
+     * и этот поток занят до завершения future, поэтому пул async в standalone.xml отдельный
+     * (не общий с таймерами и удаленными вызовами) и не меньше central.client.bulkhead.max-concurrent.
+     * RESTEasy не прерывает HTTP-обмен при отмене future: результат отмененного запроса отбрасывается,
+     * а соединение освобождается по ответу или по central.client.read-timeout-ms.
+     * Запрос идет через CentralServiceGuard (адаптивный таймаут, bulkhead и circuit breaker)
+     * на узел, выбранный CentralServiceBalancer.
+     */
+    private <T> CompletableFuture<T> fetch(String path, Map<String, Object> templates, GenericType<T> type) {
+        return centralServiceGuard.call(key(path, templates),
+                () -> centralServiceBalancer.callAsync(baseUrl -> request(baseUrl, path, templates, type)));
+    }
+
+    private <T> CompletableFuture<T> request(String baseUrl, String path, Map<String, Object> templates,
+                                             GenericType<T> type) {
+        return centralServiceClient.asyncClient()
+                .target(baseUrl)
+                .path(path)
+                .resolveTemplates(templates)
+                .request()
+                .rx()
+                .get()
+                .toCompletableFuture()
+                .thenApply(response -> {
+                    try {
+                        if (response.getStatus() == 200) {
+                            return response.readEntity(type);
+                        }
+                        log.warning("Error response status: " + response.getStatus());
+                        throw new ProxyServiceException("Error calling central service: " + response.getStatus(),
+                                response.getStatus());
+                    } finally {
+                        response.close();
+                    }
+                })
+                .exceptionally(error -> {
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof ProxyServiceException) {
+                        throw (ProxyServiceException) cause;
+                    }
+                    log.log(Level.SEVERE, "Error in proxy request " + path + " " + templates, cause);
+                    throw new ProxyServiceException("Error in proxy request", cause);
+                });
+    }
+
+    /**
+     * Ключ запроса для circuit breaker и last-known-good: шаблон пути и отсортированные параметры
+     */
+    private static String key(String path, Map<String, Object> templates) {
+        return path + new TreeMap<>(templates);
+    }
+
+    /**
+     * Запускает запрос для каждого ключа одновременно и собирает ответы в одну карту.
+     * Первая ошибка завершает пакет, отмена или ошибка пакета отменяет оставшиеся запросы.
+     */
+    private <T> CompletableFuture<Map<String, T>> fanOut(Set<String> keys,
+                                                         Function<String, CompletableFuture<T>> request) {
+        CompletableFuture<Map<String, T>> result = new CompletableFuture<>();
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (String key : keys) {
+            CompletableFuture<T> future = request.apply(key);
+            future.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                }
+            });
+            futures.put(key, future);
+        }
+
+        CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenRun(() -> {
+            Map<String, T> values = new LinkedHashMap<>();
+            for (Map.Entry<String, CompletableFuture<T>> future : futures.entrySet()) {
+                values.put(future.getKey(), future.getValue().join());
+            }
+            result.complete(values);
+        });
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                for (CompletableFuture<T> future : futures.values()) {
+                    future.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Ожидание для синхронных пакетных методов: не дольше BATCH_TIMEOUT_MS, по таймауту запросы отменяются.
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(BATCH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ProxyServiceException) {
+                throw (ProxyServiceException) e.getCause();
+            }
+            throw new ProxyServiceException("Error in batch proxy request", e.getCause());
+        } catch (TimeoutException e) {
+            log.warning("Batch proxy request timed out after " + BATCH_TIMEOUT_MS + " ms");
+            future.cancel(true);
+            throw new ProxyServiceException("Batch proxy request timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ProxyServiceException("Batch proxy request interrupted", e);
+        }
+    }
+
+    /**
+     * rx() заворачивает ошибку транспорта в RuntimeException(ExecutionException(ProcessingException)).
+     */
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException
+                || cause.getClass() == RuntimeException.class) && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        return cause;
     }
 }
@@ -0,0 +1,65 @@
+package client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveTimeoutTests {
+
+    @Test
+    void usesMaximumUntilEnoughSamples() {
+        AdaptiveTimeout timeout = new AdaptiveTimeout(512, 3, 250, 10_000);
+
+        for (int i = 0; i < 49; i++) {
+            timeout.record(10);
+        }
+        assertEquals(10_000, timeout.currentMs());
+    }
+
+    @Test
+    void smallWindowIsWidenedToMinimumSamples() {
+        AdaptiveTimeout timeout = new AdaptiveTimeout(20, 3, 250, 10_000);
+
+        for (int i = 0; i < AdaptiveTimeout.MIN_SAMPLES; i++) {
+            timeout.record(100);
+        }
+        assertEquals(300, timeout.currentMs());
+    }
+
+    @Test
+    void followsP99WithinBounds() {
+        AdaptiveTimeout timeout = new AdaptiveTimeout(100, 3, 250, 10_000);
+
+        // Пересчет на 50-м и затем на каждом 32-м замере
+        for (int i = 1; i <= 82; i++) {
+            timeout.record(i < 82 ? 100 : 1_000);
+        }
+        assertEquals(1_000, timeout.p99Ms());
+        assertEquals(3_000, timeout.currentMs());
+
+        for (int i = 0; i < 150; i++) {
+            timeout.record(10);
+        }
+        assertEquals(250, timeout.currentMs(), "deadline never drops below the minimum");
+    }
+
+    @Test
+    void timeoutsGrowDeadlineTowardMaximum() {
+        AdaptiveTimeout timeout = new AdaptiveTimeout(512, 3, 250, 10_000);
+        for (int i = 0; i < 64; i++) {
+            timeout.record(50);
+        }
+        assertEquals(250, timeout.currentMs());
+
+        // Центральный сервис стал отвечать за 5 с: все вызовы истекают по текущему пределу
+        for (int round = 0; round < 10 && timeout.currentMs() < 5_000; round++) {
+            long deadline = timeout.currentMs();
+            for (int i = 0; i < 32; i++) {
+                timeout.recordTimeout(deadline);
+            }
+            assertTrue(timeout.currentMs() > deadline, "deadline must grow after timeouts");
+        }
+        assertTrue(timeout.currentMs() >= 5_000);
+        assertTrue(timeout.currentMs() <= timeout.maxMs());
+    }
+}
@@ -0,0 +1,90 @@
+package client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTests {
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, 60_000, 1);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(Boolean.FALSE, breaker.tryAcquire());
+            breaker.onSuccess(false);
+        }
+        assertEquals(Boolean.FALSE, breaker.tryAcquire());
+        breaker.onFailure(false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        assertEquals(Boolean.FALSE, breaker.tryAcquire());
+        breaker.onFailure(false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertNull(breaker.tryAcquire());
+        assertEquals(1, breaker.openedCount());
+    }
+
+    @Test
+    void doesNotOpenBeforeMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 5, 50, 60_000, 1);
+
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure(false);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void closesAfterAllProbesSucceed() {
+        CircuitBreaker breaker = openBreaker(2);
+
+        Boolean first = breaker.tryAcquire();
+        Boolean second = breaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertEquals(Boolean.TRUE, first);
+        assertEquals(Boolean.TRUE, second);
+        assertNull(breaker.tryAcquire(), "only the configured number of probes may run");
+
+        breaker.onSuccess(first);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        breaker.onSuccess(second);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(Boolean.FALSE, breaker.tryAcquire());
+    }
+
+    @Test
+    void reopensOnProbeFailure() {
+        CircuitBreaker breaker = openBreaker(2);
+
+        Boolean probe = breaker.tryAcquire();
+        breaker.onFailure(probe);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(2, breaker.openedCount());
+    }
+
+    @Test
+    void releasedProbeFreesItsSlot() {
+        CircuitBreaker breaker = openBreaker(1);
+
+        Boolean probe = breaker.tryAcquire();
+        assertNull(breaker.tryAcquire());
+        breaker.release(probe);
+        assertEquals(Boolean.TRUE, breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+    }
+
+    /**
+     * Разомкнутая цепь с нулевым временем OPEN: следующий tryAcquire сразу переводит ее в HALF_OPEN
+     */
+    private static CircuitBreaker openBreaker(int probes) {
+        CircuitBreaker breaker = new CircuitBreaker(4, 2, 50, 0, probes);
+        for (int i = 0; i < 2; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure(false);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        return breaker;
+    }
+}
@@ -0,0 +1,25 @@
+package com.assistant.proxyservice.actuator;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import services.DemographyProxyService;
+
+import java.util.Map;
+
+/**
+ * Статистика пула соединений EJB-клиента до центрального сервиса: /actuator/centralclient
+ */
+@Component
+@Endpoint(id = "centralclient")
+@RequiredArgsConstructor
+public class CentralClientEndpoint {
+
+    private final DemographyProxyService proxyService;
+
+    @ReadOperation
+    public Map<String, Long> statistics() {
+        return proxyService.getClientStatistics();
+    }
+}
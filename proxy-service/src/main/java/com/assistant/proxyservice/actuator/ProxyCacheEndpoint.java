@@ -0,0 +1,25 @@
+package com.assistant.proxyservice.actuator;
+
+import com.assistant.proxyservice.service.DemographyResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Счетчики кэша ответов прокси (попадания, промахи, схлопнутые промахи, фоновые обновления): /actuator/proxycache
+ */
+@Component
+@Endpoint(id = "proxycache")
+@RequiredArgsConstructor
+public class ProxyCacheEndpoint {
+
+    private final DemographyResponseCache responseCache;
+
+    @ReadOperation
+    public Map<String, Long> statistics() {
+        return responseCache.statistics();
+    }
+}
@@ -0,0 +1,103 @@
+package com.assistant.proxyservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Превращает Future удаленного @Asynchronous EJB в CompletableFuture для асинхронных контроллеров.
+ * jboss-ejb-client не сообщает о завершении вызова (у его Future нет обратного вызова), поэтому результат
+ * ждет поток отдельного пула, а не поток Tomcat. Пул по умолчанию размером с пул Tomcat, за ним очередь:
+ * иначе асинхронный путь пропускал бы меньше одновременных запросов, чем синхронный.
+ * Таймаут proxy.async.timeout-ms отсчитывается от вызова, включая время в очереди.
+ * По таймауту или отмене удаленный вызов отменяется: еще не начатый вызов не выполнится, а начатый
+ * лишь получает флаг отмены контейнера. HTTP-запросы EJB к центральному сервису при этом не прерываются
+ * и завершаются ответом или адаптивным таймаутом CentralServiceGuard.
+ */
+@Component
+@Slf4j
+public class EjbFutureAdapter implements DisposableBean {
+
+    private final long timeoutMs;
+    private final ThreadPoolTaskExecutor executor;
+
+    public EjbFutureAdapter(@Value("${proxy.async.timeout-ms:15000}") long timeoutMs,
+                            @Value("${proxy.async.await-threads:${server.tomcat.threads.max:200}}") int awaitThreads,
+                            @Value("${proxy.async.await-queue:1000}") int awaitQueue) {
+        this.timeoutMs = timeoutMs;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ejb-await-");
+        executor.setCorePoolSize(awaitThreads);
+        executor.setMaxPoolSize(awaitThreads);
+        executor.setQueueCapacity(awaitQueue);
+        executor.initialize();
+    }
+
+    /**
+     * Вызывает remoteCall и возвращает future его результата. Ошибка самого вызова, переполнение пула
+     * ожидания и таймаут proxy.async.timeout-ms завершают future исключением.
+     */
+    public <T> CompletableFuture<T> adapt(Supplier<Future<T>> remoteCall) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<T> remote;
+        try {
+            remote = remoteCall.get();
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            executor.execute(() -> await(remote, result, deadline));
+        } catch (TaskRejectedException e) {
+            log.warn("No free threads or queue slots to await remote EJB result, cancelling the call");
+            remote.cancel(true);
+            result.completeExceptionally(e);
+        }
+
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                remote.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private <T> void await(Future<T> remote, CompletableFuture<T> result, long deadline) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            result.complete(remote.get(remaining, TimeUnit.NANOSECONDS));
+        } catch (ExecutionException e) {
+            result.completeExceptionally(e.getCause());
+        } catch (TimeoutException e) {
+            remote.cancel(true);
+            result.completeExceptionally(e);
+        } catch (CancellationException e) {
+            result.cancel(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            remote.cancel(true);
+            result.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -1,10 +1,18 @@
 package com.assistant.proxyservice.controller;
 
+import com.assistant.proxyservice.service.DemographyResponseCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import services.DemographyProxyService;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/proxy/demography")
@@ -12,40 +20,88 @@ import services.DemographyProxyService;
 @Slf4j
 public class DemographyProxyController {
 
-    private final DemographyProxyService proxyService;
+    private final DemographyResponseCache responseCache;
 
     @GetMapping("/hair-color/{hairColor}")
-    public ResponseEntity<Long> getCountByHairColor(@PathVariable String hairColor) {
-        log.info("Proxy request: Getting count by hair color: {}", hairColor);
-
-        try {
-            Long result = proxyService.getCountByHairColor(hairColor);
-
-            log.info("Proxy response: Count for hair color {} is {}", hairColor, result);
-            return ResponseEntity.ok(result);
-
-        } catch (Exception e) {
-            log.error("Error in proxy request for hair color {}: {}", hairColor, e.getMessage());
-            return ResponseEntity.internalServerError().build();
-        }
+    public CompletableFuture<ResponseEntity<Long>> getCountByHairColor(@PathVariable String hairColor) {
+        return responseCache.getCountByHairColor(hairColor)
+                .thenApply(result -> {
+                    log.debug("Proxy response: Count for hair color {} is {}", hairColor, result);
+                    return ResponseEntity.ok(result);
+                })
+                .exceptionally(e -> {
+                    log.error("Error in proxy request for hair color {}: {}", hairColor, e.getMessage());
+                    return errorResponse(e);
+                });
     }
 
     @GetMapping("/nationality/{nationality}/eye-color/{eyeColor}/percentage")
-    public ResponseEntity<Double> getPercentageByNationalityAndEyeColor(
+    public CompletableFuture<ResponseEntity<Double>> getPercentageByNationalityAndEyeColor(
             @PathVariable String nationality,
             @PathVariable String eyeColor) {
+        return responseCache.getPercentageByNationalityAndEyeColor(nationality, eyeColor)
+                .thenApply(result -> {
+                    log.debug("Proxy response: Percentage for nationality {} and eye color {} is {}%", nationality, eyeColor, result);
+                    return ResponseEntity.ok(result);
+                })
+                .exceptionally(e -> {
+                    log.error("Error in proxy request for nationality {} and eye color {}: {}", nationality, eyeColor, e.getMessage());
+                    return errorResponse(e);
+                });
+    }
 
-        log.info("Proxy request: Getting percentage by nationality: {} and eye color: {}", nationality, eyeColor);
+    @GetMapping("/nationality/{nationality}/eye-color/distribution")
+    public CompletableFuture<ResponseEntity<Map<String, Double>>> getEyeColorDistribution(@PathVariable String nationality) {
+        return responseCache.getEyeColorDistribution(nationality)
+                .thenApply(result -> {
+                    log.debug("Proxy response: Eye color distribution for nationality {} is {}", nationality, result);
+                    return ResponseEntity.ok(result);
+                })
+                .exceptionally(e -> {
+                    log.error("Error in proxy request for eye color distribution of {}: {}", nationality, e.getMessage());
+                    return errorResponse(e);
+                });
+    }
 
-        try {
-            Double result = proxyService.getPercentageByNationalityAndEyeColor(nationality, eyeColor);
+    @GetMapping("/hair-color/counts")
+    public CompletableFuture<ResponseEntity<Map<String, Long>>> getCountsByHairColors(@RequestParam Set<String> hairColors) {
+        return responseCache.getCountsByHairColors(hairColors)
+                .thenApply(result -> {
+                    log.debug("Proxy response: Counts for hair colors {} are {}", hairColors, result);
+                    return ResponseEntity.ok(result);
+                })
+                .exceptionally(e -> {
+                    log.error("Error in proxy request for hair colors {}: {}", hairColors, e.getMessage());
+                    return errorResponse(e);
+                });
+    }
 
-            log.info("Proxy response: Percentage for nationality {} and eye color {} is {}%", nationality, eyeColor, result);
-            return ResponseEntity.ok(result);
+    @GetMapping("/eye-color/percentage-matrix")
+    public CompletableFuture<ResponseEntity<Map<String, Map<String, Double>>>> getPercentageMatrix(
+            @RequestParam Set<String> nationalities,
+            @RequestParam(required = false) Set<String> eyeColors) {
+        return responseCache.getPercentageMatrix(nationalities, eyeColors)
+                .thenApply(result -> {
+                    log.debug("Proxy response: Percentage matrix for nationalities {} is {}", nationalities, result);
+                    return ResponseEntity.ok(result);
+                })
+                .exceptionally(e -> {
+                    log.error("Error in proxy request for percentage matrix of {}: {}", nationalities, e.getMessage());
+                    return errorResponse(e);
+                });
+    }
 
-        } catch (Exception e) {
-            log.error("Error in proxy request for nationality {} and eye color {}: {}", nationality, eyeColor, e.getMessage());
-            return ResponseEntity.internalServerError().build();
+    /**
+     * 504 - центральный сервис не ответил за proxy.async.timeout-ms, 503 - заняты все потоки ожидания EJB
+     */
+    private static <T> ResponseEntity<T> errorResponse(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        }
+        if (cause instanceof TaskRejectedException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
+        return ResponseEntity.internalServerError().build();
     }
 }
\ No newline at end of file
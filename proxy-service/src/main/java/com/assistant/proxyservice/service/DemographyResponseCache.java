@@ -0,0 +1,177 @@
+package com.assistant.proxyservice.service;
+
+import com.assistant.proxyservice.config.EjbFutureAdapter;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import services.DemographyProxyService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш ответов центрального сервиса в прокси, ключ - операция и нормализованные параметры пути
+ * (верхний регистр, множества отсортированы). Запись живет proxy.cache.ttl-ms; после
+ * proxy.cache.refresh-after-ms она еще отдается, а в фоне перезапрашивается (stale-while-revalidate).
+ * Одновременные промахи по одному ключу ждут один и тот же запрос к EJB.
+ */
+@Service
+@Slf4j
+public class DemographyResponseCache {
+
+    enum Operation {
+        HAIR_COLOR_COUNT,
+        PERCENTAGE,
+        EYE_COLOR_DISTRIBUTION,
+        HAIR_COLOR_COUNTS,
+        PERCENTAGE_MATRIX
+    }
+
+    record Key(Operation operation, List<String> params) {
+    }
+
+    private final DemographyProxyService proxyService;
+    private final EjbFutureAdapter ejbFutures;
+    private final boolean enabled;
+    private final AsyncLoadingCache<Key, Object> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    public DemographyResponseCache(DemographyProxyService proxyService,
+                                   EjbFutureAdapter ejbFutures,
+                                   @Value("${proxy.cache.enabled:true}") boolean enabled,
+                                   @Value("${proxy.cache.max-size:10000}") long maxSize,
+                                   @Value("${proxy.cache.ttl-ms:60000}") long ttlMs,
+                                   @Value("${proxy.cache.refresh-after-ms:10000}") long refreshAfterMs) {
+        this.proxyService = proxyService;
+        this.ejbFutures = ejbFutures;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .refreshAfterWrite(Duration.ofMillis(refreshAfterMs))
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<Object> asyncLoad(Key key, Executor executor) {
+                        return load(key);
+                    }
+
+                    @Override
+                    public CompletableFuture<Object> asyncReload(Key key, Object oldValue, Executor executor) {
+                        refreshes.increment();
+                        return load(key);
+                    }
+                });
+    }
+
+    public CompletableFuture<Long> getCountByHairColor(String hairColor) {
+        return get(new Key(Operation.HAIR_COLOR_COUNT, List.of(normalize(hairColor))));
+    }
+
+    public CompletableFuture<Double> getPercentageByNationalityAndEyeColor(String nationality, String eyeColor) {
+        return get(new Key(Operation.PERCENTAGE, List.of(normalize(nationality), normalize(eyeColor))));
+    }
+
+    public CompletableFuture<Map<String, Double>> getEyeColorDistribution(String nationality) {
+        return get(new Key(Operation.EYE_COLOR_DISTRIBUTION, List.of(normalize(nationality))));
+    }
+
+    public CompletableFuture<Map<String, Long>> getCountsByHairColors(Set<String> hairColors) {
+        return get(new Key(Operation.HAIR_COLOR_COUNTS, normalize(hairColors)));
+    }
+
+    /**
+     * Параметры матрицы в ключе: страны, разделитель "|", цвета глаз (пусто - все цвета)
+     */
+    public CompletableFuture<Map<String, Map<String, Double>>> getPercentageMatrix(Set<String> nationalities,
+                                                                                   Set<String> eyeColors) {
+        List<String> params = new ArrayList<>(normalize(nationalities));
+        params.add("|");
+        if (eyeColors != null) {
+            params.addAll(normalize(eyeColors));
+        }
+        return get(new Key(Operation.PERCENTAGE_MATRIX, List.copyOf(params)));
+    }
+
+    public Map<String, Long> statistics() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("cache.size", cache.synchronous().estimatedSize());
+        result.put("cache.hits", hits.sum());
+        result.put("cache.misses", misses.sum());
+        result.put("cache.coalesced", coalesced.sum());
+        result.put("cache.refreshes", refreshes.sum());
+        result.put("cache.evictions", cache.synchronous().stats().evictionCount());
+        return result;
+    }
+
+    /**
+     * Готовое значение в кэше - попадание, еще выполняющийся запрос - схлопнутый промах.
+     * Ошибочные ответы Caffeine из кэша удаляет сам, следующий запрос пойдет в EJB заново.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> get(Key key) {
+        if (!enabled) {
+            return (CompletableFuture<T>) load(key);
+        }
+
+        boolean[] loaded = new boolean[1];
+        CompletableFuture<Object> future = cache.get(key, (k, executor) -> {
+            loaded[0] = true;
+            return load(k);
+        });
+        if (loaded[0]) {
+            misses.increment();
+        } else {
+            (future.isDone() ? hits : coalesced).increment();
+        }
+        return (CompletableFuture<T>) future;
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Object> load(Key key) {
+        List<String> params = key.params();
+        return (CompletableFuture<Object>) (CompletableFuture<?>) switch (key.operation()) {
+            case HAIR_COLOR_COUNT -> ejbFutures.adapt(() -> proxyService.getCountByHairColorAsync(params.get(0)));
+            case PERCENTAGE -> ejbFutures.adapt(
+                    () -> proxyService.getPercentageByNationalityAndEyeColorAsync(params.get(0), params.get(1)));
+            case EYE_COLOR_DISTRIBUTION -> ejbFutures.adapt(() -> proxyService.getEyeColorDistributionAsync(params.get(0)));
+            case HAIR_COLOR_COUNTS -> ejbFutures.adapt(
+                    () -> proxyService.getCountsByHairColorsAsync(new LinkedHashSet<>(params)));
+            case PERCENTAGE_MATRIX -> {
+                int separator = params.indexOf("|");
+                Set<String> nationalities = new LinkedHashSet<>(params.subList(0, separator));
+                Set<String> eyeColors = new LinkedHashSet<>(params.subList(separator + 1, params.size()));
+                yield ejbFutures.adapt(() -> proxyService.getPercentageMatrixAsync(nationalities, eyeColors));
+            }
+        };
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static List<String> normalize(Set<String> values) {
+        TreeSet<String> normalized = new TreeSet<>();
+        for (String value : values) {
+            normalized.add(normalize(value));
+        }
+        return List.copyOf(normalized);
+    }
+}